@@ -0,0 +1,95 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic target sets and output trees shared by the benchmarks.
+ *
+ * <p>Targets are shaped like the block image targets: {@code <namespace>:<block>/<state hash>}, with a
+ * handful of namespaces and a few dozen states per block, so prefixes are shared the way they are in real runs.
+ */
+final class BenchmarkFixtures
+{
+    static final String[] NAMESPACES = {"minecraft", "minecolonies", "domum_ornamentum", "structurize"};
+
+    private static final int STATES_PER_BLOCK = 32;
+
+    private BenchmarkFixtures()
+    {
+    }
+
+    /**
+     * A filter without any rules, so every target is included.
+     */
+    static TargetFilter noFilter()
+    {
+        final TargetFilter.Rules none = new TargetFilter.Rules(List.of(), List.of());
+        return new TargetFilter(none, none, none);
+    }
+
+    /**
+     * Creates {@code count} distinct block-state-like targets, identical for the same seed.
+     */
+    static List<GeneratorTarget> targets(final int count, final long seed)
+    {
+        final Random random = new Random(seed);
+        final List<GeneratorTarget> targets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            final int block = i / STATES_PER_BLOCK;
+            // Mirrors BlockStateDataGenerator.getBlockStateIdentifier, the hash of the model location
+            final String state = Integer.toString(random.nextInt() ^ i);
+            targets.add(new GeneratorTarget(NAMESPACES[block % NAMESPACES.length], "block_" + block + "/" + state));
+        }
+        return targets;
+    }
+
+    /**
+     * Writes a small file for every target below {@code outputPath}, the way a generator would.
+     */
+    static void writeTargets(final Path outputPath, final List<GeneratorTarget> targets, final String extension) throws IOException
+    {
+        final byte[] content = new byte[64];
+        for (final GeneratorTarget target : targets)
+        {
+            final Path file = outputPath.resolve(target.namespace()).resolve(target.path() + "." + extension);
+            Files.createDirectories(file.getParent());
+            Files.write(file, content);
+        }
+    }
+
+    /**
+     * Deletes {@code root} and everything below it.
+     */
+    static void deleteTree(final Path root) throws IOException
+    {
+        if (!Files.exists(root))
+        {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>()
+        {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException
+            {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException
+            {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
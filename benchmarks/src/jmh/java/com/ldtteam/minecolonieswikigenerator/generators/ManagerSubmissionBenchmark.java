@@ -0,0 +1,157 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.ldtteam.minecolonieswikigenerator.RootEntrypoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full manager run over generators whose {@link DataGenerator#generate} does no work, isolating the cost of
+ * discovery, building the target store, submitting and tracking every target future and draining batched queues.
+ *
+ * <p>Cleanup is disabled and nothing is written, so the output path is never touched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ManagerSubmissionBenchmark
+{
+    @Param({"100000"})
+    public int targets;
+
+    @Param({"async", "completed", "batched"})
+    public String mode;
+
+    private Set<GeneratorTarget> targetSet;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        targetSet = new HashSet<>(BenchmarkFixtures.targets(targets, 0));
+    }
+
+    @Benchmark
+    public long run()
+    {
+        final BenchmarkEntrypoint entrypoint = new BenchmarkEntrypoint(new NoOpGenerator(targetSet, mode));
+        entrypoint.run();
+        return entrypoint.ticks;
+    }
+
+    /**
+     * Ticks the manager on the benchmark thread until it shuts down.
+     */
+    private static final class BenchmarkEntrypoint extends RootEntrypoint<Object>
+    {
+        private final DataGenerator<Object> generator;
+
+        private volatile boolean running = true;
+        private          long    ticks;
+
+        private BenchmarkEntrypoint(final DataGenerator<Object> generator)
+        {
+            this.generator = generator;
+        }
+
+        private void run()
+        {
+            initialize();
+            while (running)
+            {
+                tick();
+                ticks++;
+                Thread.yield();
+            }
+        }
+
+        @Override
+        public Object getLevel()
+        {
+            return null;
+        }
+
+        @Override
+        public Path getOutputPath()
+        {
+            return Path.of("benchmark-output");
+        }
+
+        @Override
+        protected void getGenerators(final DataGeneratorCollector<Object> collector)
+        {
+            collector.add(true, generator);
+        }
+
+        @Override
+        public void shutdown()
+        {
+            running = false;
+        }
+    }
+
+    /**
+     * Lists a fixed target set and generates nothing: {@code async} hops to the worker pool, {@code completed}
+     * returns an already completed future, and {@code batched} is drained on the ticking thread in batches of 100.
+     */
+    private static final class NoOpGenerator extends DataGenerator<Object>
+    {
+        private final Set<GeneratorTarget> targets;
+        private final String               mode;
+
+        private NoOpGenerator(final Set<GeneratorTarget> targets, final String mode)
+        {
+            this.targets = targets;
+            this.mode = mode;
+        }
+
+        @Override
+        public String getName()
+        {
+            return "Benchmark " + mode;
+        }
+
+        @Override
+        public Path getGeneratorOutputPath(final Path rootPath)
+        {
+            return rootPath.resolve(mode);
+        }
+
+        @Override
+        public boolean shouldClearBeforeGeneration()
+        {
+            return false;
+        }
+
+        @Override
+        public Integer batchSize()
+        {
+            return "batched".equals(mode) ? 100 : null;
+        }
+
+        @Override
+        public void listTargets(final TargetContext<Object> context)
+        {
+            for (final GeneratorTarget target : targets)
+            {
+                context.add(target.namespace(), target.path());
+            }
+        }
+
+        @Override
+        public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<Object> options)
+        {
+            if ("async".equals(mode))
+            {
+                return runAsync(() -> {});
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
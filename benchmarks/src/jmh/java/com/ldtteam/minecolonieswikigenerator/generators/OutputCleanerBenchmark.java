@@ -0,0 +1,68 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stale-file cleanup ({@code deleteUnindexedFiles}) over a synthetic output tree on disk.
+ *
+ * <p>The tree holds a file for every target plus a share of stale files, which are written again before every
+ * invocation since cleanup deletes them. With {@code staleFraction} at 0 the benchmark measures the walk and
+ * the matching alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OutputCleanerBenchmark
+{
+    @Param({"10000", "100000"})
+    public int files;
+
+    @Param({"0", "0.1"})
+    public double staleFraction;
+
+    private Path                  outputPath;
+    private TargetStore           targets;
+    private List<GeneratorTarget> staleTargets;
+    private TargetFilter          filter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        final int staleCount = (int) (files * staleFraction);
+        final List<GeneratorTarget> all = BenchmarkFixtures.targets(files + staleCount, 0);
+
+        outputPath = Files.createTempDirectory("wiki-cleanup-benchmark");
+        targets = TargetStore.of(all.subList(0, files));
+        staleTargets = all.subList(files, all.size());
+        filter = BenchmarkFixtures.noFilter();
+
+        BenchmarkFixtures.writeTargets(outputPath, all.subList(0, files), "png");
+    }
+
+    @Setup(Level.Invocation)
+    public void seedStaleFiles() throws IOException
+    {
+        BenchmarkFixtures.writeTargets(outputPath, staleTargets, "png");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        BenchmarkFixtures.deleteTree(outputPath);
+    }
+
+    @Benchmark
+    public int clean() throws IOException
+    {
+        return new OutputCleaner(outputPath, targets, filter).clean();
+    }
+}
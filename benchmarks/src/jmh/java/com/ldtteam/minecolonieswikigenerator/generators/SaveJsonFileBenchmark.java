@@ -0,0 +1,159 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DataGeneratorOptions#saveJsonFile} for documents shaped like the item and block state outputs.
+ *
+ * <p>{@link #serialise} measures the Gson pretty-printing and encoding on its own, {@link #save} adds
+ * creating the parent folders and writing the file, overwriting the same file on every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveJsonFileBenchmark
+{
+    /**
+     * Matches the instance the manager hands to generators.
+     */
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    @Param({"item", "blockstates"})
+    public String document;
+
+    private Path                         outputPath;
+    private DataGeneratorOptions<Object> options;
+    private JsonElement                  json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        outputPath = Files.createTempDirectory("wiki-json-benchmark");
+        options = new DataGeneratorOptions<>(outputPath, GSON, null);
+        json = "item".equals(document) ? createItem() : createBlockStates();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        BenchmarkFixtures.deleteTree(outputPath);
+    }
+
+    @Benchmark
+    public byte[] serialise()
+    {
+        return GSON.toJson(json).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void save() throws IOException
+    {
+        options.saveJsonFile("minecolonies", "blockhutbuilder", json);
+    }
+
+    /**
+     * An item document as written by {@code ItemDataGenerator}, including food and crop data.
+     */
+    private static JsonObject createItem()
+    {
+        final JsonObject json = new JsonObject();
+        json.addProperty("name", "Durum Wheat Seeds");
+        json.addProperty("block-id", "minecolonies:durum");
+
+        final JsonObject food = new JsonObject();
+        food.addProperty("tier", 1);
+        food.addProperty("saturation", 4);
+        json.add("food", food);
+
+        final JsonObject crop = new JsonObject();
+        crop.addProperty("biome-tag", "minecolonies:cold_biomes");
+        final JsonArray droppedFrom = new JsonArray();
+        droppedFrom.add("minecraft:grass");
+        droppedFrom.add("minecraft:tall_grass");
+        droppedFrom.add("minecraft:fern");
+        crop.add("dropped-from", droppedFrom);
+        json.add("crop", crop);
+        return json;
+    }
+
+    /**
+     * A block state document as written by {@code BlockStateDataGenerator} for a block with four properties
+     * and 96 states, like a stair or a Domum Ornamentum shingle.
+     */
+    private static JsonObject createBlockStates()
+    {
+        final String[][] properties = {
+            {"facing", "enum", "north", "south", "west", "east"},
+            {"half", "enum", "top", "bottom"},
+            {"shape", "enum", "straight", "inner_left", "inner_right", "outer_left", "outer_right", "none"},
+            {"waterlogged", "boolean", "true", "false"}};
+
+        final JsonObject json = new JsonObject();
+        final JsonArray propertiesJson = new JsonArray();
+        for (final String[] property : properties)
+        {
+            final JsonObject propertyJson = new JsonObject();
+            propertyJson.addProperty("property", property[0]);
+            propertyJson.addProperty("type", property[1]);
+            final JsonArray values = new JsonArray();
+            for (int i = 2; i < property.length; i++)
+            {
+                values.add(property[i]);
+            }
+            propertyJson.add("values", values);
+            propertiesJson.add(propertyJson);
+        }
+        json.add("properties", propertiesJson);
+
+        final JsonArray statesJson = new JsonArray();
+        final int[] value = new int[properties.length];
+        do
+        {
+            final JsonObject stateJson = new JsonObject();
+            final JsonArray stateProperties = new JsonArray();
+            for (int p = 0; p < properties.length; p++)
+            {
+                final JsonObject statePropertyJson = new JsonObject();
+                statePropertyJson.addProperty("property", properties[p][0]);
+                statePropertyJson.addProperty("value", properties[p][2 + value[p]]);
+                stateProperties.add(statePropertyJson);
+            }
+            stateJson.add("values", stateProperties);
+            stateJson.addProperty("imageid", String.valueOf(stateProperties.hashCode()));
+            statesJson.add(stateJson);
+        }
+        while (increment(value, properties));
+        json.add("blockstates", statesJson);
+        return json;
+    }
+
+    /**
+     * Advances {@code value} to the next property combination, returning {@code false} once all were visited.
+     */
+    private static boolean increment(final int[] value, final String[][] properties)
+    {
+        for (int p = 0; p < value.length; p++)
+        {
+            if (++value[p] < properties[p].length - 2)
+            {
+                return true;
+            }
+            value[p] = 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GeneratorTarget} hashing and set membership, comparing a {@link HashSet} of records with {@link TargetStore}.
+ *
+ * <p>Every operation looks up the full probe list once, half of which is present in the set, so the score
+ * divided by {@code targets} is the cost of a single lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TargetMembershipBenchmark
+{
+    @Param({"10000", "1000000"})
+    public int targets;
+
+    private List<GeneratorTarget> members;
+    private GeneratorTarget[]     probes;
+    private Set<GeneratorTarget>  hashSet;
+    private TargetStore           store;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        final List<GeneratorTarget> all = BenchmarkFixtures.targets(targets * 2, 0);
+        members = all.subList(0, targets);
+        hashSet = new HashSet<>(members);
+        store = TargetStore.of(members);
+
+        // Fresh instances, so lookups compare contents instead of hitting the identity check, like during cleanup
+        probes = new GeneratorTarget[targets];
+        for (int i = 0; i < targets; i++)
+        {
+            final GeneratorTarget target = all.get(i * 2);
+            probes[i] = new GeneratorTarget(new String(target.namespace()), new String(target.path()));
+        }
+    }
+
+    @Benchmark
+    public void hashCodes(final Blackhole blackhole)
+    {
+        for (final GeneratorTarget probe : probes)
+        {
+            blackhole.consume(probe.hashCode());
+        }
+    }
+
+    @Benchmark
+    public int hashSetContains()
+    {
+        int found = 0;
+        for (final GeneratorTarget probe : probes)
+        {
+            if (hashSet.contains(probe))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int targetStoreContains()
+    {
+        int found = 0;
+        for (final GeneratorTarget probe : probes)
+        {
+            if (store.contains(probe))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public HashSet<GeneratorTarget> buildHashSet()
+    {
+        return new HashSet<>(members);
+    }
+
+    @Benchmark
+    public TargetStore buildTargetStore()
+    {
+        return TargetStore.of(members);
+    }
+}
@@ -0,0 +1,158 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The post-processing kernels of the image generators, fed with synthetic framebuffers of the sizes they read back:
+ * 1200x1200 for the 4x supersampled block and item renders, 2048x2048 for the largest schematic renders.
+ *
+ * <p>The synthetic render is a noisy, isometric-cube-like shape on a transparent background covering about half of
+ * the frame, with a soft edge, so the bounds scan finds real transparent margins and the resampler sees varied pixels.
+ * The synthetic sprite is a 16x16 texture of a few colors scaled up to the output size, like a flat item render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImageKernelsBenchmark
+{
+    /**
+     * Output size of the block and item generators.
+     */
+    private static final int BLOCK_OUTPUT_SIZE = 300;
+
+    /**
+     * Output size of the schematic generator.
+     */
+    private static final int SCHEMATIC_OUTPUT_SIZE = 512;
+
+    @Param({"1200", "2048"})
+    public int renderSize;
+
+    private RgbaImage     render;
+    private ContentBounds bounds;
+    private AreaResampler schematicResampler;
+    private RgbaImage     blockImage;
+    private RgbaImage     spriteImage;
+    private PngEncoder    pngEncoder;
+    private PngEncoder    palettePngEncoder;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        render = createRender(renderSize, 0);
+        bounds = ImageKernels.findContentBounds(render);
+        schematicResampler = new AreaResampler(renderSize, renderSize, SCHEMATIC_OUTPUT_SIZE, SCHEMATIC_OUTPUT_SIZE);
+        blockImage = ImageKernels.cropToSquare(render, bounds, BLOCK_OUTPUT_SIZE);
+        spriteImage = createSprite(BLOCK_OUTPUT_SIZE, 0);
+        pngEncoder = new PngEncoder(6, PngEncoder.Filter.ADAPTIVE);
+        palettePngEncoder = pngEncoder.withPalette();
+    }
+
+    @Benchmark
+    public ContentBounds findContentBounds()
+    {
+        return ImageKernels.findContentBounds(render);
+    }
+
+    @Benchmark
+    public RgbaImage cropToSquare()
+    {
+        return ImageKernels.cropToSquare(render, bounds, BLOCK_OUTPUT_SIZE);
+    }
+
+    @Benchmark
+    public RgbaImage resampleSchematic()
+    {
+        return schematicResampler.resample(render);
+    }
+
+    @Benchmark
+    public byte[] encodePng()
+    {
+        return pngEncoder.encode(blockImage);
+    }
+
+    @Benchmark
+    public byte[] encodeSpritePng()
+    {
+        return pngEncoder.encode(spriteImage);
+    }
+
+    @Benchmark
+    public byte[] encodeSpritePalettePng()
+    {
+        return palettePngEncoder.encode(spriteImage);
+    }
+
+    /**
+     * Draws a hexagon, the outline of a cube seen from above at an angle, centred in a transparent frame.
+     */
+    static RgbaImage createRender(final int size, final long seed)
+    {
+        final Random random = new Random(seed);
+        final RgbaImage image = new RgbaImage(size, size);
+        final float center = size / 2f;
+        final float radius = size * 0.35f;
+
+        for (int y = 0; y < size; y++)
+        {
+            for (int x = 0; x < size; x++)
+            {
+                final float dx = Math.abs(x - center) / radius;
+                final float dy = Math.abs(y - center) / radius;
+                // Hexagon with pointy top and bottom, distance 1 at the edge
+                final float distance = Math.max(dx / 0.866f, dy + dx * 0.5f / 0.866f);
+                if (distance >= 1)
+                {
+                    continue;
+                }
+
+                final int alpha = distance > 0.98f ? (int) ((1 - distance) / 0.02f * 255) : 255;
+                final int shade = y < center - dx * radius * 0.5f ? 230 : x < center ? 170 : 120;
+                final int r = Math.min(255, shade * 3 / 4 + random.nextInt(48));
+                final int g = Math.min(255, shade / 2 + random.nextInt(48));
+                final int b = Math.min(255, shade / 3 + random.nextInt(48));
+                image.setPixel(x, y, (alpha << 24) | (b << 16) | (g << 8) | r);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Draws a 16x16 texture of eight colors on a transparent border and scales it up to {@code size} without
+     * filtering, so it keeps the few colors of a flat item render.
+     */
+    static RgbaImage createSprite(final int size, final long seed)
+    {
+        final Random random = new Random(seed);
+        final int[] colors = new int[8];
+        for (int i = 0; i < colors.length; i++)
+        {
+            colors[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        final int[] texture = new int[16 * 16];
+        for (int y = 2; y < 14; y++)
+        {
+            for (int x = 2; x < 14; x++)
+            {
+                texture[y * 16 + x] = colors[random.nextInt(colors.length)];
+            }
+        }
+
+        final RgbaImage image = new RgbaImage(size, size);
+        for (int y = 0; y < size; y++)
+        {
+            for (int x = 0; x < size; x++)
+            {
+                image.setPixel(x, y, texture[y * 16 / size * 16 + x * 16 / size]);
+            }
+        }
+        return image;
+    }
+}
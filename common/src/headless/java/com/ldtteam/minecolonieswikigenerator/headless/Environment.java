@@ -0,0 +1,78 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Locale;
+
+/**
+ * Reads the typed environment variables configuring headless runs, falling back to defaults for unset or invalid values.
+ */
+final class Environment
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private Environment()
+    {
+    }
+
+    static long readLong(final String variable, final long defaultValue)
+    {
+        final String value = System.getenv(variable);
+        if (value == null || value.isBlank())
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", value, variable, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    static double readDouble(final String variable, final double defaultValue)
+    {
+        final String value = System.getenv(variable);
+        if (value == null || value.isBlank())
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", value, variable, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    static boolean readBoolean(final String variable, final boolean defaultValue)
+    {
+        final String value = System.getenv(variable);
+        return value == null || value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    static <E extends Enum<E>> E readEnum(final String variable, final Class<E> type, final E defaultValue)
+    {
+        final String value = System.getenv(variable);
+        if (value == null || value.isBlank())
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", value, variable, defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+import com.ldtteam.minecolonieswikigenerator.RootEntrypoint;
+import com.ldtteam.minecolonieswikigenerator.generators.DataGenerator;
+import com.ldtteam.minecolonieswikigenerator.generators.GenerationMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link com.ldtteam.minecolonieswikigenerator.generators.DataGeneratorManager} without Minecraft,
+ * ticking it in a tight loop on the calling thread, which stands in for the render thread.
+ *
+ * <p>Started through {@link #main}, the run is driven by two {@link SyntheticDataGenerator}s, one asynchronous
+ * and one batched, so scheduling, cleanup and file writing can be profiled at full speed on a machine without a
+ * game or display. Their {@link SyntheticProfile} is read from {@code SYNTHETIC_TARGETS},
+ * {@code SYNTHETIC_NAMESPACES}, {@code SYNTHETIC_PAYLOAD_BYTES}, {@code SYNTHETIC_BATCH_SIZE},
+ * {@code SYNTHETIC_LATENCY}, {@code SYNTHETIC_LATENCY_MS} and {@code SYNTHETIC_FAILURE_RATE}, and the file
+ * contents are seeded by {@code SYNTHETIC_SEED}. Filter and plan mode variables are honoured the same way as in
+ * the client. The only program argument is the output folder, {@code output} by default.
+ */
+public class HeadlessEntrypoint extends RootEntrypoint<HeadlessLevel>
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final SyntheticProfile DEFAULT_PROFILE = new SyntheticProfile(10000, 4, 256, 10, LatencyDistribution.NONE, 0, 0);
+
+    private final Path                              outputPath;
+    private final HeadlessLevel                     level;
+    private final List<DataGenerator<HeadlessLevel>> generators;
+
+    private volatile boolean running = true;
+
+    public HeadlessEntrypoint(final Path outputPath, final HeadlessLevel level, final List<DataGenerator<HeadlessLevel>> generators)
+    {
+        super();
+        this.outputPath = outputPath;
+        this.level = level;
+        this.generators = generators;
+    }
+
+    public static void main(final String[] args)
+    {
+        final Path outputPath = Path.of(args.length > 0 ? args[0] : "output").toAbsolutePath().normalize();
+        final List<DataGenerator<HeadlessLevel>> generators = List.of(
+            new SyntheticDataGenerator("Synthetic Data", "synthetic_data", SyntheticProfile.fromEnvironment("SYNTHETIC_", DEFAULT_PROFILE, false)),
+            new SyntheticDataGenerator("Synthetic Batched Data", "synthetic_batched", SyntheticProfile.fromEnvironment("SYNTHETIC_", DEFAULT_PROFILE, true)));
+
+        new HeadlessEntrypoint(outputPath, new HeadlessLevel(Environment.readLong("SYNTHETIC_SEED", 0)), generators).run();
+    }
+
+    /**
+     * Creates the manager and ticks it until it shuts the entrypoint down.
+     *
+     * @return the number of ticks the run took
+     */
+    public long run()
+    {
+        final long start = System.nanoTime();
+        long ticks = 0;
+
+        initialize();
+        while (running)
+        {
+            tick();
+            ticks++;
+            // Let the workers run on machines with fewer cores than busy threads
+            Thread.yield();
+        }
+
+        LOGGER.info("Headless run finished after {} ticks in {} ms", ticks, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return ticks;
+    }
+
+    /**
+     * The counters of the last {@link #run()}.
+     */
+    public GenerationMetrics getMetrics()
+    {
+        return getManager().getMetrics();
+    }
+
+    @Override
+    public HeadlessLevel getLevel()
+    {
+        return level;
+    }
+
+    @Override
+    public Path getOutputPath()
+    {
+        return outputPath;
+    }
+
+    @Override
+    protected void getGenerators(final DataGeneratorCollector<HeadlessLevel> collector)
+    {
+        generators.forEach(generator -> collector.add(true, generator));
+    }
+
+    @Override
+    public void shutdown()
+    {
+        running = false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+/**
+ * Stand-in for the game level when generators run without Minecraft.
+ *
+ * @param seed the seed synthetic generators derive their output from, so repeated runs write identical files
+ */
+public record HeadlessLevel(long seed)
+{
+}
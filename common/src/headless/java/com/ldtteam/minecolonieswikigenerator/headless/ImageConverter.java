@@ -0,0 +1,145 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+import com.ldtteam.minecolonieswikigenerator.images.ImageFormat;
+import com.ldtteam.minecolonieswikigenerator.images.PngEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.RgbaImage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Converts the QOI and raw RGBA images written by a render run with {@code IMAGE_FORMAT} set into PNG files next to
+ * them, on every core, outside the render loop. Each intermediate file is replaced by its PNG once that is written.
+ *
+ * <p>Program arguments are the directories to convert, searched recursively. Configured through environment
+ * variables:
+ * <ul>
+ *     <li>{@code PNG_COMPRESSION} — the PNG compression level, default {@value #DEFAULT_COMPRESSION}, as the output is
+ *     meant to be published</li>
+ *     <li>{@code PNG_FILTER} — the PNG row filter, see {@link PngEncoder#fromEnvironment()}</li>
+ *     <li>{@code CONVERT_THREADS} — the number of conversion threads, default the number of available processors</li>
+ *     <li>{@code CONVERT_KEEP_INTERMEDIATE} — {@code true} to keep the converted QOI and raw files</li>
+ * </ul>
+ * Exits with status 1 if any file could not be converted.
+ */
+public final class ImageConverter
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int DEFAULT_COMPRESSION = 9;
+
+    private ImageConverter()
+    {
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        if (args.length == 0)
+        {
+            LOGGER.error("Usage: ImageConverter <directory>...");
+            System.exit(2);
+        }
+
+        final int threads = (int) Math.max(1, Environment.readLong("CONVERT_THREADS", Runtime.getRuntime().availableProcessors()));
+        final boolean keepIntermediate = Environment.readBoolean("CONVERT_KEEP_INTERMEDIATE", false);
+        // Palette images are smaller wherever they apply, and the scan is cheap next to level 9 compression
+        final PngEncoder encoder = PngEncoder.fromEnvironment(DEFAULT_COMPRESSION).withPalette();
+
+        final List<Path> files = new ArrayList<>();
+        for (final String directory : args)
+        {
+            try (Stream<Path> walk = Files.walk(Path.of(directory)))
+            {
+                walk.filter(ImageConverter::isIntermediate).forEach(files::add);
+            }
+        }
+        LOGGER.info("Converting {} images on {} threads", files.size(), threads);
+
+        final long start = System.nanoTime();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong bytesWritten = new AtomicLong();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            final List<Future<?>> conversions = files.stream()
+                .<Future<?>>map(file -> executor.submit(() -> {
+                    try
+                    {
+                        bytesRead.addAndGet(Files.size(file));
+                        bytesWritten.addAndGet(convert(file, encoder, keepIntermediate));
+                    }
+                    catch (IOException | RuntimeException e)
+                    {
+                        failed.incrementAndGet();
+                        LOGGER.error("Could not convert {}", file, e);
+                    }
+                }))
+                .toList();
+            for (final Future<?> conversion : conversions)
+            {
+                conversion.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        LOGGER.info("Converted {} of {} images in {} ms, {} bytes to {} bytes",
+            files.size() - failed.get(), files.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), bytesRead.get(), bytesWritten.get());
+        if (failed.get() > 0)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the PNG of {@code file} next to it, through a temporary file so an interrupted conversion never leaves
+     * a truncated PNG behind, and deletes {@code file} unless it is kept.
+     *
+     * @return the size of the PNG file
+     */
+    private static long convert(final Path file, final PngEncoder encoder, final boolean keepIntermediate) throws IOException
+    {
+        final String name = file.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        final RgbaImage image = ImageFormat.fromExtension(name.substring(dot + 1)).decode(Files.readAllBytes(file));
+        final byte[] png = encoder.encode(image);
+
+        final Path target = file.resolveSibling(name.substring(0, dot) + "." + ImageFormat.PNG.getExtension());
+        final Path temporary = file.resolveSibling(name.substring(0, dot) + ".png.tmp");
+        Files.write(temporary, png);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (!keepIntermediate)
+        {
+            Files.delete(file);
+        }
+        return png.length;
+    }
+
+    private static boolean isIntermediate(final Path file)
+    {
+        final String name = file.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        if (dot < 0 || !Files.isRegularFile(file))
+        {
+            return false;
+        }
+        final ImageFormat format = ImageFormat.fromExtension(name.substring(dot + 1));
+        return format != null && format.isIntermediate();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+import java.util.Random;
+
+/**
+ * How long a synthetic generator spends on each target before writing it, emulating registry lookups,
+ * rendering or slow disks.
+ */
+public enum LatencyDistribution
+{
+    /**
+     * No simulated work at all.
+     */
+    NONE,
+    /**
+     * Every target takes exactly the mean.
+     */
+    FIXED,
+    /**
+     * Uniformly distributed between zero and twice the mean.
+     */
+    UNIFORM,
+    /**
+     * Exponentially distributed around the mean, producing the occasional very slow target.
+     */
+    EXPONENTIAL;
+
+    /**
+     * Draws the latency of a single target.
+     *
+     * @param random     the random source of the target
+     * @param meanMillis the mean latency in milliseconds
+     * @return the latency in nanoseconds
+     */
+    public long sampleNanos(final Random random, final double meanMillis)
+    {
+        final double millis = switch (this)
+        {
+            case NONE -> 0;
+            case FIXED -> meanMillis;
+            case UNIFORM -> random.nextDouble() * 2 * meanMillis;
+            case EXPONENTIAL -> -Math.log(1 - random.nextDouble()) * meanMillis;
+        };
+        return (long) (millis * 1_000_000);
+    }
+}
@@ -0,0 +1,180 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.ldtteam.minecolonieswikigenerator.generators.DataGenerator;
+import com.ldtteam.minecolonieswikigenerator.generators.GenerationMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Stresses the manager with a large synthetic run and reports throughput, peak heap and cleanup time.
+ *
+ * <p>By default the run writes to an in-memory file system, so it measures the manager rather than the disk
+ * and needs no network or game. The output is pre-seeded with stale files, so cleanup has real work to do
+ * while generation runs. Configured through environment variables:
+ * <ul>
+ *     <li>{@code LOAD_TEST_TARGETS} — targets spread over the asynchronous generators, default {@value #DEFAULT_TARGETS}</li>
+ *     <li>{@code LOAD_TEST_GENERATORS} — number of asynchronous generators, default {@value #DEFAULT_GENERATORS}</li>
+ *     <li>{@code LOAD_TEST_BATCHED_TARGETS} — targets of the batched generator, default {@value #DEFAULT_BATCHED_TARGETS}</li>
+ *     <li>{@code LOAD_TEST_STALE_FILES} — stale files seeded before the run, default {@value #DEFAULT_STALE_FILES}</li>
+ *     <li>{@code LOAD_TEST_IN_MEMORY} — {@code false} to write to a temporary folder on disk instead</li>
+ *     <li>{@code LOAD_TEST_NAMESPACES}, {@code LOAD_TEST_PAYLOAD_BYTES}, {@code LOAD_TEST_BATCH_SIZE}, {@code LOAD_TEST_LATENCY},
+ *     {@code LOAD_TEST_LATENCY_MS}, {@code LOAD_TEST_FAILURE_RATE} — the {@link SyntheticProfile} of every generator</li>
+ * </ul>
+ * The only program argument is an optional path to write the report to as JSON.
+ */
+public final class LoadTest
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int DEFAULT_TARGETS         = 1_000_000;
+    private static final int DEFAULT_GENERATORS      = 4;
+    private static final int DEFAULT_BATCHED_TARGETS = 100_000;
+    private static final int DEFAULT_STALE_FILES     = 100_000;
+
+    private static final SyntheticProfile DEFAULT_PROFILE = new SyntheticProfile(0, 8, 64, 100, LatencyDistribution.NONE, 0, 0);
+
+    private static final long HEAP_SAMPLE_MILLIS = 10;
+
+    private LoadTest()
+    {
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int targets = (int) Environment.readLong("LOAD_TEST_TARGETS", DEFAULT_TARGETS);
+        final int generatorCount = (int) Math.max(1, Environment.readLong("LOAD_TEST_GENERATORS", DEFAULT_GENERATORS));
+        final int batchedTargets = (int) Environment.readLong("LOAD_TEST_BATCHED_TARGETS", DEFAULT_BATCHED_TARGETS);
+        final int staleFiles = (int) Environment.readLong("LOAD_TEST_STALE_FILES", DEFAULT_STALE_FILES);
+        final boolean inMemory = Environment.readBoolean("LOAD_TEST_IN_MEMORY", true);
+        final SyntheticProfile profile = SyntheticProfile.fromEnvironment("LOAD_TEST_", DEFAULT_PROFILE, true);
+
+        final List<DataGenerator<HeadlessLevel>> generators = new ArrayList<>();
+        final List<String> folders = new ArrayList<>();
+        for (int i = 0; i < generatorCount; i++)
+        {
+            final int share = targets / generatorCount + (i < targets % generatorCount ? 1 : 0);
+            folders.add("async_" + i);
+            generators.add(new SyntheticDataGenerator("Load Test Async " + i, folders.getLast(), profile.withTargets(share).withBatchSize(null)));
+        }
+        if (batchedTargets > 0)
+        {
+            folders.add("batched");
+            generators.add(new SyntheticDataGenerator("Load Test Batched", folders.getLast(), profile.withTargets(batchedTargets)));
+        }
+
+        try (FileSystem fileSystem = inMemory ? Jimfs.newFileSystem(Configuration.unix()) : null)
+        {
+            final Path outputPath = inMemory ? fileSystem.getPath("/output") : Files.createTempDirectory("wiki-load-test");
+            seedStaleFiles(outputPath, folders, staleFiles);
+
+            LOGGER.info("Load test: {} async targets over {} generators, {} batched targets, {} stale files, output {}",
+                targets, generatorCount, batchedTargets, staleFiles, inMemory ? "in memory" : outputPath);
+
+            final HeadlessEntrypoint entrypoint = new HeadlessEntrypoint(outputPath, new HeadlessLevel(0), generators);
+            final HeapSampler heapSampler = new HeapSampler();
+            heapSampler.start();
+            final long ticks = entrypoint.run();
+            heapSampler.interrupt();
+            heapSampler.join();
+
+            final JsonObject report = createReport(entrypoint.getMetrics(), ticks, heapSampler.peakBytes, countFiles(outputPath));
+            LOGGER.info("Load test report: {}", report);
+
+            if (args.length > 0)
+            {
+                Files.writeString(Path.of(args[0]), new GsonBuilder().setPrettyPrinting().create().toJson(report), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Writes {@code count} files no generator lists, spread round-robin over the generator folders.
+     */
+    private static void seedStaleFiles(final Path outputPath, final List<String> folders, final int count) throws IOException
+    {
+        final byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < count; i++)
+        {
+            final Path file = outputPath.resolve(folders.get(i % folders.size())).resolve("stale").resolve("entries").resolve(String.valueOf(i / 100)).resolve(i + ".json");
+            Files.createDirectories(file.getParent());
+            Files.write(file, content);
+        }
+    }
+
+    private static long countFiles(final Path outputPath) throws IOException
+    {
+        try (Stream<Path> walk = Files.walk(outputPath))
+        {
+            return walk.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static JsonObject createReport(final GenerationMetrics metrics, final long ticks, final long peakHeapBytes, final long filesOnDisk)
+    {
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(metrics.getElapsedNanos());
+
+        final JsonObject report = new JsonObject();
+        report.addProperty("targetsListed", metrics.getTargetsListed());
+        report.addProperty("targetsGenerated", metrics.getTargetsGenerated());
+        report.addProperty("targetsFailed", metrics.getTargetsFailed());
+        report.addProperty("filesDeleted", metrics.getFilesDeleted());
+        report.addProperty("filesOnDisk", filesOnDisk);
+        report.addProperty("elapsedMillis", elapsedMillis);
+        report.addProperty("targetsPerSecond", elapsedMillis == 0 ? 0 : metrics.getTargetsGenerated() * 1000 / elapsedMillis);
+        report.addProperty("discoveryMillis", TimeUnit.NANOSECONDS.toMillis(metrics.getDiscoveryNanos()));
+        report.addProperty("cleanupMillis", TimeUnit.NANOSECONDS.toMillis(metrics.getCleanupNanos()));
+        report.addProperty("ticks", ticks);
+        report.addProperty("peakHeapBytes", peakHeapBytes);
+        return report;
+    }
+
+    /**
+     * Polls heap usage in the background. Samples include garbage that was not collected yet, so the peak is an upper bound.
+     */
+    private static final class HeapSampler extends Thread
+    {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        private volatile long peakBytes;
+
+        private HeapSampler()
+        {
+            super("Load test heap sampler");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run()
+        {
+            while (!isInterrupted())
+            {
+                peakBytes = Math.max(peakBytes, memory.getHeapMemoryUsage().getUsed());
+                try
+                {
+                    Thread.sleep(HEAP_SAMPLE_MILLIS);
+                }
+                catch (InterruptedException e)
+                {
+                    break;
+                }
+            }
+            peakBytes = Math.max(peakBytes, memory.getHeapMemoryUsage().getUsed());
+        }
+    }
+}
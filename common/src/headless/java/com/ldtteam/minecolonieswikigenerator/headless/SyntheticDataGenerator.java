@@ -0,0 +1,117 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+import com.google.gson.JsonObject;
+import com.ldtteam.minecolonieswikigenerator.generators.DataGenerator;
+import com.ldtteam.minecolonieswikigenerator.generators.DataGeneratorOptions;
+import com.ldtteam.minecolonieswikigenerator.generators.GeneratorTarget;
+import com.ldtteam.minecolonieswikigenerator.generators.TargetContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generator producing deterministic JSON files shaped by a {@link SyntheticProfile}, used to exercise the
+ * manager's scheduling, cleanup and writing without Minecraft.
+ *
+ * <p>Targets are spread round-robin over the profile's namespaces and grouped into folders of 100 files,
+ * e.g. {@code synthetic1:entries/12/1234}, mirroring the nested layout of the image generators. Latency and
+ * failures are drawn from a random source seeded by the level seed and the target, so a run is repeatable.
+ */
+public class SyntheticDataGenerator extends DataGenerator<HeadlessLevel>
+{
+    private static final int FILES_PER_FOLDER = 100;
+
+    private final String           name;
+    private final String           folder;
+    private final SyntheticProfile profile;
+
+    /**
+     * @param name    the generator name
+     * @param folder  the output folder name
+     * @param profile the shape of the generated work
+     */
+    public SyntheticDataGenerator(final String name, final String folder, final SyntheticProfile profile)
+    {
+        this.name = name;
+        this.folder = folder;
+        this.profile = profile;
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public Path getGeneratorOutputPath(final Path rootPath)
+    {
+        return rootPath.resolve(folder);
+    }
+
+    @Override
+    public Integer batchSize()
+    {
+        return profile.batchSize();
+    }
+
+    @Override
+    public void listTargets(final TargetContext<HeadlessLevel> context)
+    {
+        final int namespaces = Math.max(1, profile.namespaces());
+        for (int i = 0; i < profile.targets(); i++)
+        {
+            final String namespace = "synthetic" + (i % namespaces);
+            if (!context.includesNamespace(namespace))
+            {
+                continue;
+            }
+
+            final String path = "entries/" + (i / FILES_PER_FOLDER) + "/" + i;
+            if (context.includes(namespace, path))
+            {
+                context.add(namespace, path);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<HeadlessLevel> options)
+    {
+        if (profile.batchSize() != null)
+        {
+            return runNow(() -> generateTarget(target, options));
+        }
+        return runAsync(() -> generateTarget(target, options));
+    }
+
+    private void generateTarget(final GeneratorTarget target, final DataGeneratorOptions<HeadlessLevel> options) throws IOException
+    {
+        final Random random = new Random(options.getLevel().seed() ^ target.hashCode());
+
+        final long latencyNanos = profile.latency().sampleNanos(random, profile.latencyMillis());
+        if (latencyNanos > 0)
+        {
+            LockSupport.parkNanos(latencyNanos);
+        }
+
+        if (random.nextDouble() < profile.failureRate())
+        {
+            throw new IOException("Synthetic failure for " + target);
+        }
+
+        final char[] data = new char[profile.payloadBytes()];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (char) ('a' + random.nextInt(26));
+        }
+
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", target.toString());
+        json.addProperty("data", new String(data));
+        options.saveJsonFile(target.namespace(), target.path(), json);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ldtteam.minecolonieswikigenerator.headless;
+
+/**
+ * The shape of the work a {@link SyntheticDataGenerator} produces.
+ *
+ * @param targets       the number of files to produce
+ * @param namespaces    the number of namespaces to spread the files over
+ * @param payloadBytes  the approximate size of every file
+ * @param batchSize     the batch size to emulate a render-thread generator, or {@code null} to generate asynchronously
+ * @param latency       the distribution of the simulated work per target
+ * @param latencyMillis the mean simulated work per target in milliseconds
+ * @param failureRate   the fraction of targets that fail instead of being written, between 0 and 1
+ */
+public record SyntheticProfile(
+    int targets,
+    int namespaces,
+    int payloadBytes,
+    Integer batchSize,
+    LatencyDistribution latency,
+    double latencyMillis,
+    double failureRate)
+{
+    /**
+     * Reads a profile from environment variables starting with {@code prefix}, e.g. {@code SYNTHETIC_TARGETS}.
+     * The batch size is read from {@code <prefix>BATCH_SIZE} only when {@code batched} is set, in which case
+     * {@code defaults} must carry a batch size.
+     */
+    static SyntheticProfile fromEnvironment(final String prefix, final SyntheticProfile defaults, final boolean batched)
+    {
+        final Integer batchSize = batched ? Integer.valueOf((int) Environment.readLong(prefix + "BATCH_SIZE", defaults.batchSize())) : null;
+        return new SyntheticProfile((int) Environment.readLong(prefix + "TARGETS", defaults.targets()),
+            (int) Environment.readLong(prefix + "NAMESPACES", defaults.namespaces()),
+            (int) Environment.readLong(prefix + "PAYLOAD_BYTES", defaults.payloadBytes()),
+            batchSize,
+            Environment.readEnum(prefix + "LATENCY", LatencyDistribution.class, defaults.latency()),
+            Environment.readDouble(prefix + "LATENCY_MS", defaults.latencyMillis()),
+            Environment.readDouble(prefix + "FAILURE_RATE", defaults.failureRate()));
+    }
+
+    /**
+     * A copy of this profile with a different target count.
+     */
+    public SyntheticProfile withTargets(final int targets)
+    {
+        return new SyntheticProfile(targets, namespaces, payloadBytes, batchSize, latency, latencyMillis, failureRate);
+    }
+
+    /**
+     * A copy of this profile with a different batch size, {@code null} for an asynchronous generator.
+     */
+    public SyntheticProfile withBatchSize(final Integer batchSize)
+    {
+        return new SyntheticProfile(targets, namespaces, payloadBytes, batchSize, latency, latencyMillis, failureRate);
+    }
+}
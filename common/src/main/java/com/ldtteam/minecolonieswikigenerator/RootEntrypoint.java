@@ -52,6 +52,23 @@ public abstract class RootEntrypoint<L>
         this.generator = new DataGeneratorManager<>(this);
     }
 
+    /**
+     * The manager driving this run, or {@code null} before {@link #initialize()} was called.
+     */
+    protected final DataGeneratorManager<L> getManager()
+    {
+        return this.generator;
+    }
+
+    /**
+     * Whether a world has to be loaded before {@link #tick()} starts generation. {@code true} before
+     * {@link #initialize()} was called.
+     */
+    protected final boolean requiresLevel()
+    {
+        return this.generator == null || this.generator.requiresLevel();
+    }
+
     protected final void tick()
     {
         if (this.generator != null)
@@ -60,6 +77,28 @@ public abstract class RootEntrypoint<L>
         }
     }
 
+    /**
+     * Forwards a finished resource reload to the manager, so watch mode can regenerate resource-dependent output.
+     */
+    protected final void onResourcesReloaded()
+    {
+        if (this.generator != null)
+        {
+            this.generator.onResourcesReloaded();
+        }
+    }
+
+    /**
+     * Ticks the manager while the world is still loading, so generators that need no level can start early.
+     */
+    protected final void tickBeforeLevel()
+    {
+        if (this.generator != null)
+        {
+            this.generator.tickBeforeLevel();
+        }
+    }
+
     public record DataGenerators<L>(
         List<DataGenerator<L>> activeGenerators,
         List<DataGenerator<L>> inactiveGenerators)
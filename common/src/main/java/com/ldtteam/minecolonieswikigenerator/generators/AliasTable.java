@@ -0,0 +1,182 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deduplicates the targets of an image generator by what they render, so targets that would produce the same image
+ * are rendered only once, and records the others as aliases of the one that is rendered.
+ *
+ * <p>After a pass, {@link #write} stores the aliases of every namespace in
+ * {@code <generator folder>_aliases/<namespace>.json}, an object from alias path to rendered path:
+ * <pre>
+ * {"redstone_wire/-1534112386": "redstone_wire/1027331523"}
+ * </pre>
+ * The tables live beside the generator folder, so output cleanup leaves them alone. Aliases the run's filter
+ * excluded are carried over from the previous table; namespaces without aliases have no table.
+ *
+ * <p>Tables are built by a single thread in {@link DataGenerator#listTargets} and only read afterwards.
+ */
+final class AliasTable
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String EXTENSION = ".json";
+
+    private final TargetContext<?> context;
+
+    /**
+     * The rendered target path of every render key, by namespace.
+     */
+    private final Map<String, Map<Object, String>> rendered = new HashMap<>();
+
+    /**
+     * The rendered target path of every alias path, by namespace.
+     */
+    private final Map<String, Map<String, String>> aliases = new HashMap<>();
+
+    /**
+     * @param context the context the targets are listed with, which decides what is carried over
+     */
+    AliasTable(final TargetContext<?> context)
+    {
+        this.context = context;
+    }
+
+    /**
+     * Adds the target {@code namespace:path}, which renders whatever {@code renderKey} stands for. Keys must
+     * implement {@code equals} and {@code hashCode}, and be equal exactly when their targets render the same image.
+     *
+     * @return whether the target is the first in its namespace with this key and has to be rendered; otherwise it
+     *     becomes an alias of that first target
+     */
+    boolean add(final String namespace, final String path, final Object renderKey)
+    {
+        final String renderedPath = rendered.computeIfAbsent(namespace, ns -> new HashMap<>()).putIfAbsent(renderKey, path);
+        if (renderedPath == null)
+        {
+            aliases.computeIfAbsent(namespace, ns -> new TreeMap<>());
+            return true;
+        }
+        aliases.get(namespace).put(path, renderedPath);
+        return false;
+    }
+
+    /**
+     * The number of targets that became aliases.
+     */
+    int size()
+    {
+        return aliases.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Writes the table of every namespace with targets, one namespace per worker, and deletes the tables of included
+     * namespaces that no longer have any. Does nothing when {@link DataGeneratorOptions#isDiscardingOutput()
+     * discarding output}.
+     */
+    CompletableFuture<Void> write(final DataGeneratorOptions<?> options)
+    {
+        if (options.isDiscardingOutput())
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final Path outputPath = options.getOutputPath();
+        final Path directory = outputPath.resolveSibling(outputPath.getFileName() + "_aliases");
+        final List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (final Map.Entry<String, Map<String, String>> namespace : aliases.entrySet())
+        {
+            writes.add(DataGenerator.runAsync(() -> writeNamespace(directory.resolve(namespace.getKey() + EXTENSION),
+                namespace.getKey(),
+                namespace.getValue(),
+                options.getGson())));
+        }
+        writes.add(DataGenerator.runAsync(() -> deleteStale(directory)));
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Writes the aliases of a namespace, plus those of the previous table that the run filtered out.
+     */
+    private void writeNamespace(final Path file, final String namespace, final Map<String, String> namespaceAliases, final Gson gson)
+        throws IOException
+    {
+        final Map<String, String> merged = new TreeMap<>(namespaceAliases);
+        for (final Map.Entry<String, JsonElement> previous : readTable(file).entrySet())
+        {
+            if (!context.getFilter().includes(namespace, previous.getKey()))
+            {
+                merged.putIfAbsent(previous.getKey(), previous.getValue().getAsString());
+            }
+        }
+
+        if (merged.isEmpty())
+        {
+            Files.deleteIfExists(file);
+            return;
+        }
+
+        final JsonObject json = new JsonObject();
+        merged.forEach(json::addProperty);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, gson.toJson(json), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deletes the tables of namespaces the run included but listed no targets for, e.g. of a removed mod.
+     */
+    private void deleteStale(final Path directory) throws IOException
+    {
+        if (!Files.isDirectory(directory))
+        {
+            return;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION))
+        {
+            for (final Path file : stream)
+            {
+                final String fileName = file.getFileName().toString();
+                final String namespace = fileName.substring(0, fileName.length() - EXTENSION.length());
+                if (!aliases.containsKey(namespace) && context.getFilter().includesNamespace(namespace))
+                {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static JsonObject readTable(final Path file)
+    {
+        if (!Files.isRegularFile(file))
+        {
+            return new JsonObject();
+        }
+        try
+        {
+            return JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOGGER.warn("Ignoring unreadable alias table {}", file, e);
+            return new JsonObject();
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watch mode: collects changes to the source files of the generators after the first pass, so the manager can
+ * regenerate only what changed instead of exiting.
+ *
+ * <p>Enabled by setting {@code WATCH} to {@code true}. Every directory a generator returns from
+ * {@link DataGenerator#getWatchedPaths()} is watched recursively through a {@link WatchService}, and resource
+ * reloads are forwarded by the entrypoint for generators that {@link DataGenerator#dependsOnResources() depend on
+ * resources}. Changes are debounced: they are handed out once no further change arrived for
+ * {@code WATCH_DEBOUNCE_MS} milliseconds (default {@value #DEFAULT_DEBOUNCE_MILLIS}), so saving many files at once
+ * results in a single batch.
+ *
+ * <p>Watching continues until a file named {@value #STOP_FILE} is created in the output root, or the game is closed.
+ *
+ * @param <L> the level type of the watched generators
+ */
+final class ChangeWatcher<L> implements Closeable
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ENV_WATCH    = "WATCH";
+    private static final String ENV_DEBOUNCE = "WATCH_DEBOUNCE_MS";
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private static final String STOP_FILE = "watch.stop";
+
+    private static final long STOP_POLL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long debounceNanos;
+    private final Path stopFile;
+
+    private final Map<WatchKey, WatchedDirectory<L>>   directories        = new ConcurrentHashMap<>();
+    private final Map<DataGenerator<L>, Set<Path>>     changedFiles       = new ConcurrentHashMap<>();
+    private final Set<DataGenerator<L>>                fullyChanged       = ConcurrentHashMap.newKeySet();
+    private final List<DataGenerator<L>>               resourceGenerators = new ArrayList<>();
+
+    private WatchService watchService;
+    private Thread       thread;
+    private long         lastStopPollNanos;
+
+    private volatile boolean started;
+    private volatile long    lastChangeNanos;
+
+    private ChangeWatcher(final long debounceNanos, final Path stopFile)
+    {
+        this.debounceNanos = debounceNanos;
+        this.stopFile = stopFile;
+    }
+
+    /**
+     * Reads the watch configuration from the environment variables described in the class documentation.
+     *
+     * @return the watcher, or {@code null} when watch mode is not enabled
+     */
+    static <L> ChangeWatcher<L> fromEnvironment(final Path rootPath)
+    {
+        if (!Boolean.parseBoolean(System.getenv(ENV_WATCH)))
+        {
+            return null;
+        }
+
+        long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+        final String value = System.getenv(ENV_DEBOUNCE);
+        if (value != null && !value.isBlank())
+        {
+            try
+            {
+                debounceMillis = Math.max(0, Long.parseLong(value.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", value, ENV_DEBOUNCE, debounceMillis);
+            }
+        }
+        return new ChangeWatcher<>(TimeUnit.MILLISECONDS.toNanos(debounceMillis), rootPath.resolve(STOP_FILE));
+    }
+
+    /**
+     * Starts watching the source directories of {@code generators}. Called once the first pass has completed, so
+     * generators know their sources from {@link DataGenerator#listTargets}.
+     */
+    void start(final List<DataGenerator<L>> generators) throws IOException
+    {
+        Files.deleteIfExists(stopFile);
+        watchService = FileSystems.getDefault().newWatchService();
+
+        for (final DataGenerator<L> generator : generators)
+        {
+            if (generator.dependsOnResources())
+            {
+                resourceGenerators.add(generator);
+            }
+            for (final Path path : generator.getWatchedPaths())
+            {
+                if (path.getFileSystem() != FileSystems.getDefault() || !Files.isDirectory(path))
+                {
+                    LOGGER.info("{}: cannot watch {}, it is not a directory on disk", generator.getName(), path);
+                    continue;
+                }
+                registerRecursively(path, generator);
+            }
+        }
+
+        thread = new Thread(this::run, "Wiki generator change watcher");
+        thread.setDaemon(true);
+        thread.start();
+        started = true;
+
+        LOGGER.info("Watching {} directories and resource reloads of {} generators. Create {} to stop.",
+            directories.size(),
+            resourceGenerators.size(),
+            stopFile);
+    }
+
+    /**
+     * Marks every generator that depends on resources as changed. Reloads before {@link #start} are ignored,
+     * since the first pass already uses the loaded resources.
+     */
+    void resourcesReloaded()
+    {
+        if (!started)
+        {
+            return;
+        }
+        LOGGER.info("Resources reloaded, regenerating {} generators", resourceGenerators.size());
+        fullyChanged.addAll(resourceGenerators);
+        lastChangeNanos = System.nanoTime();
+    }
+
+    /**
+     * Whether the stop file exists. Checked at most once per second; the file is removed once seen.
+     */
+    boolean isStopRequested()
+    {
+        final long now = System.nanoTime();
+        if (now - lastStopPollNanos < STOP_POLL_NANOS)
+        {
+            return false;
+        }
+        lastStopPollNanos = now;
+
+        try
+        {
+            return Files.deleteIfExists(stopFile);
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Could not remove stop file {}", stopFile, e);
+            return true;
+        }
+    }
+
+    /**
+     * Hands out the changes collected so far, once no new change arrived within the debounce interval.
+     *
+     * @return one entry per changed generator, empty while nothing changed or changes are still arriving
+     */
+    List<Change<L>> poll()
+    {
+        if ((changedFiles.isEmpty() && fullyChanged.isEmpty()) || System.nanoTime() - lastChangeNanos < debounceNanos)
+        {
+            return List.of();
+        }
+
+        final Map<DataGenerator<L>, Change<L>> changes = new LinkedHashMap<>();
+        for (final DataGenerator<L> generator : List.copyOf(fullyChanged))
+        {
+            fullyChanged.remove(generator);
+            changes.put(generator, new Change<>(generator, null));
+        }
+        for (final DataGenerator<L> generator : List.copyOf(changedFiles.keySet()))
+        {
+            final Set<Path> files = changedFiles.remove(generator);
+            if (files != null && !changes.containsKey(generator))
+            {
+                changes.put(generator, new Change<>(generator, files));
+            }
+        }
+        return List.copyOf(changes.values());
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        started = false;
+        if (watchService != null)
+        {
+            watchService.close();
+        }
+        if (thread != null)
+        {
+            thread.interrupt();
+        }
+    }
+
+    private void registerRecursively(final Path root, final DataGenerator<L> generator) throws IOException
+    {
+        Files.walkFileTree(root, new SimpleFileVisitor<>()
+        {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException
+            {
+                final WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                directories.computeIfAbsent(key, k -> new WatchedDirectory<>(dir, new CopyOnWriteArrayList<>())).generators().add(generator);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void run()
+    {
+        try
+        {
+            while (true)
+            {
+                final WatchKey key = watchService.take();
+                final WatchedDirectory<L> directory = directories.get(key);
+                if (directory != null)
+                {
+                    for (final WatchEvent<?> event : key.pollEvents())
+                    {
+                        handleEvent(directory, event);
+                    }
+                }
+                if (!key.reset())
+                {
+                    directories.remove(key);
+                }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException e)
+        {
+            // Watching stopped
+        }
+    }
+
+    private void handleEvent(final WatchedDirectory<L> directory, final WatchEvent<?> event)
+    {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+        {
+            // Events were lost, so any file below this directory may have changed
+            fullyChanged.addAll(directory.generators());
+            lastChangeNanos = System.nanoTime();
+            return;
+        }
+
+        final Path file = directory.path().resolve((Path) event.context());
+        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS))
+        {
+            for (final DataGenerator<L> generator : directory.generators())
+            {
+                try
+                {
+                    registerRecursively(file, generator);
+                    registerExistingFiles(file, generator);
+                }
+                catch (IOException e)
+                {
+                    LOGGER.warn("{}: could not watch new directory {}", generator.getName(), file, e);
+                }
+            }
+        }
+
+        for (final DataGenerator<L> generator : directory.generators())
+        {
+            changedFiles.computeIfAbsent(generator, g -> ConcurrentHashMap.newKeySet()).add(file);
+        }
+        lastChangeNanos = System.nanoTime();
+    }
+
+    /**
+     * Files may have been written into a new directory before it was registered, so they are reported as changed.
+     */
+    private void registerExistingFiles(final Path directory, final DataGenerator<L> generator) throws IOException
+    {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>()
+        {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+            {
+                changedFiles.computeIfAbsent(generator, g -> ConcurrentHashMap.newKeySet()).add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * The pending changes of a single generator.
+     *
+     * @param generator the changed generator
+     * @param files     the changed files below its watched paths, or {@code null} when all of its targets are affected
+     */
+    record Change<L>(
+        DataGenerator<L> generator,
+        Set<Path> files)
+    {
+    }
+
+    /**
+     * A watched directory and the generators watching it; several generators may share a source directory.
+     */
+    private record WatchedDirectory<L>(
+        Path path,
+        List<DataGenerator<L>> generators)
+    {
+    }
+}
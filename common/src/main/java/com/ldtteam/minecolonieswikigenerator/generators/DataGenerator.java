@@ -1,21 +1,32 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Base class for all wiki data generators.
  *
  * <p>Implementors declare what files they produce via {@link #listTargets}, and generate each file
- * individually via {@link #generate}. The manager handles namespace filtering, output cleanup, and
- * scheduling — generators should not do any of that themselves.
+ * individually via {@link #generate}. The manager handles target filtering, output cleanup, and
+ * scheduling — generators should not do any of that themselves, beyond skipping entries the
+ * {@link TargetContext} already rules out.
  *
  * @param <L> the level type (e.g. {@code ClientLevel}) — passed through so version-specific
  *            subclasses can access world state without the common module depending on Minecraft
  */
 public abstract class DataGenerator<L>
 {
+    /**
+     * Executor for all work that runs off the render thread. The common pool hands every task to a new thread
+     * when its parallelism is 1 (one or two cores), so a small dedicated pool is used on such machines instead.
+     */
+    static final ForkJoinPool WORKERS = ForkJoinPool.getCommonPoolParallelism() > 1 ? ForkJoinPool.commonPool() : new ForkJoinPool(2);
+
     /**
      * A human-readable name for this generator, used in log output.
      */
@@ -38,17 +49,76 @@ public abstract class DataGenerator<L>
     }
 
     /**
-     * Returns the complete set of {@link GeneratorTarget}s this generator intends to produce.
-     * No namespace filtering should be applied here — the manager filters targets before calling
-     * {@link #generate}, and uses the full set for output cleanup.
+     * Whether this generator needs a loaded level, e.g. for rendering or for data only the integrated server
+     * provides. When no selected generator needs one, the entrypoint starts as soon as the game's resources
+     * are loaded and skips world creation, and {@link TargetContext#getLevel()} and
+     * {@link DataGeneratorOptions#getLevel()} are {@code null}. Defaults to {@code true}.
+     */
+    public boolean requiresLevel()
+    {
+        return true;
+    }
+
+    /**
+     * Lists the targets this generator intends to produce through {@link TargetContext#add}. Generators should
+     * skip namespaces and entries the context does not include, so they are never materialised; the
+     * manager filters the listed targets again before calling {@link #generate}, and only cleans up
+     * output files the filter includes, so files of filtered-out targets are left untouched.
      *
-     * @param level the current level, available for registry or world queries
+     * <p>State a generator keeps per target should be indexed by the index {@link TargetContext#add} returns,
+     * and looked up again through {@link TargetContext#indexOf}, rather than kept in maps of targets.
+     *
+     * <p>Runs on a worker thread, or on the render thread in plan mode. Game state that only the render thread may
+     * touch, such as models, has to be read through the game's executor. In plan mode the context includes every
+     * target, so the plan can count the targets the filter excludes.
+     *
+     * @param context the level and target filter for this run, and the sink for its targets
      */
-    public abstract Set<GeneratorTarget> listTargets(final L level);
+    public abstract void listTargets(final TargetContext<L> context);
+
+    /**
+     * Whether {@link #generate} does the work for {@code target} itself. Generators that write several files
+     * for one target, and list the other files only so cleanup keeps them, return {@code false} for those.
+     * Render benchmark mode only samples targets that do their own work.
+     */
+    public boolean isStandaloneTarget(final GeneratorTarget target)
+    {
+        return true;
+    }
+
+    /**
+     * Directories holding the source files of this generator's targets, watched for changes in watch mode.
+     * Only meaningful once {@link #listTargets} has run. Defaults to none.
+     */
+    public Collection<Path> getWatchedPaths()
+    {
+        return List.of();
+    }
+
+    /**
+     * Whether the output depends on the game's loaded resources (textures, models, language files), so watch mode
+     * regenerates every target after a resource reload. Defaults to {@code false}.
+     */
+    public boolean dependsOnResources()
+    {
+        return false;
+    }
+
+    /**
+     * Returns the targets affected by changes to {@code changedFiles}, in watch mode. Called after
+     * {@link #listTargets} has been run again, so deleted sources are already gone from the target set and their
+     * output is removed by cleanup. Defaults to {@code null}, meaning every target may be affected.
+     *
+     * @param changedFiles created, modified or deleted files below {@link #getWatchedPaths()}
+     */
+    public Set<GeneratorTarget> getAffectedTargets(final Collection<Path> changedFiles)
+    {
+        return null;
+    }
 
     /**
      * The number of targets to process per render-thread tick, or {@code null} to run all targets
-     * concurrently off the render thread via {@link CompletableFuture#runAsync}.
+     * concurrently off the render thread via {@link #runAsync}.
      *
      * <p>Return a non-null value for generators that require render-thread access (e.g. block/item
      * rendering). The manager will drain the target queue in batches of this size each tick.
@@ -59,12 +129,102 @@ public abstract class DataGenerator<L>
     }
 
     /**
-     * Generates the output file for a single target. Called once per target after namespace
-     * filtering — implementations do not need to check whether the target's namespace is excluded.
+     * Called on the render thread once the manager has drained this generator's target queue, for batched
+     * generators only. Releases resources kept across batches, such as pooled framebuffers. Defaults to nothing.
+     */
+    public void onBatchesDrained()
+    {
+    }
+
+    /**
+     * Called once every target of a pass has completed, successfully or not, to write output that spans targets,
+     * such as sprite-sheet atlases. Runs off the render thread, and the pass only completes once the returned future
+     * does. Not called in render benchmark mode. Defaults to nothing.
+     *
+     * @param options the options the targets of the pass were generated with
+     */
+    public CompletableFuture<Void> onTargetsCompleted(final DataGeneratorOptions<L> options)
+    {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Generates the output file for a single target. Called once per target after filtering —
+     * implementations do not need to check whether the target is excluded.
      *
      * @param target  the specific file to produce, identified by namespace and path
      * @param options provides the output path, Gson instance, level, and file-saving helpers
      * @return a future that completes when the file has been written
      */
     public abstract CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options);
+
+    /**
+     * Runs {@code task} off the render thread, completing the returned future exceptionally if it throws.
+     */
+    protected static CompletableFuture<Void> runAsync(final GenerationTask task)
+    {
+        return CompletableFuture.runAsync(() -> {
+            try
+            {
+                task.run();
+            }
+            catch (Exception e)
+            {
+                throw new CompletionException(e);
+            }
+        }, WORKERS);
+    }
+
+    /**
+     * Continues with {@code step} off the render thread once {@code stage} completes, for batched generators that
+     * only need the render thread for part of a target, e.g. to crop and encode pixels read back from a framebuffer.
+     * The returned future completes exceptionally if either {@code stage} or {@code step} fails.
+     */
+    protected static <T> CompletableFuture<Void> continueAsync(final CompletableFuture<T> stage, final GenerationStep<T> step)
+    {
+        return stage.thenAcceptAsync(value -> {
+            try
+            {
+                step.accept(value);
+            }
+            catch (Exception e)
+            {
+                throw new CompletionException(e);
+            }
+        }, WORKERS);
+    }
+
+    /**
+     * Runs {@code task} on the calling thread, for batched generators that must stay on the render thread.
+     */
+    protected static CompletableFuture<Void> runNow(final GenerationTask task)
+    {
+        try
+        {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        catch (Exception e)
+        {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * A unit of generation work that may throw.
+     */
+    @FunctionalInterface
+    protected interface GenerationTask
+    {
+        void run() throws Exception;
+    }
+
+    /**
+     * A unit of generation work that consumes the result of an earlier stage and may throw.
+     */
+    @FunctionalInterface
+    protected interface GenerationStep<T>
+    {
+        void accept(T value) throws Exception;
+    }
 }
\ No newline at end of file
@@ -6,25 +6,37 @@ import com.ldtteam.minecolonieswikigenerator.RootEntrypoint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Drives all registered {@link DataGenerator}s for a single generation run.
  *
  * <p>The manager is ticked each game tick via {@link #tick()}. On the first tick it starts every
- * active generator: it resolves their full target sets, deletes stale output files, filters out
- * excluded namespaces, then either fires all targets concurrently (async generators) or enqueues
- * them for batched render-thread processing (batched generators). Once all generators report
- * completion, it shuts down the entrypoint.
+ * active generator selected by the {@link TargetFilter} without blocking the game: each generator
+ * resolves its target set on a worker thread through a filter-aware {@link TargetContext}, then
+ * deletes stale output files while its targets are either fired concurrently (async generators) or
+ * handed to the tick for batched render-thread processing (batched generators). Once all generators
+ * report completion, it shuts down the entrypoint.
+ *
+ * <p>While the world is still loading, the entrypoint may call {@link #tickBeforeLevel()} instead, which
+ * starts the generators that do not {@link DataGenerator#requiresLevel() require a level} early. The
+ * remaining generators start on the first {@link #tick()}.
+ *
+ * <p>When the {@code PLAN_ONLY} environment variable is {@code true}, the manager only resolves the
+ * target sets, writes a {@code plan.json} summary into the output root and shuts down, without
+ * generating or deleting anything. When {@code RENDER_BENCHMARK} is {@code true}, it instead runs a
+ * {@link RenderBenchmark} over a sample of the render generators' targets, discarding their output.
+ *
+ * <p>When {@code WATCH} is {@code true}, the manager does not shut down after the first pass: a
+ * {@link ChangeWatcher} reports changed source files and resource reloads, and each debounced batch of
+ * changes starts a new pass limited to the changed generators and their affected targets.
  *
  * @param <L> the level type passed through to generators and their options
  */
@@ -34,39 +46,71 @@ public final class DataGeneratorManager<L>
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
-    private static final String ENV_EXCLUDED_NAMESPACES = "EXCLUDED_NAMESPACES";
+    private static final String ENV_PLAN_ONLY = "PLAN_ONLY";
+
+    private static final String PLAN_FILE = "plan.json";
 
     private final RootEntrypoint<L> entrypoint;
 
     private final RootEntrypoint.DataGenerators<L> generators;
 
-    private final Set<String> excludedNamespaces;
+    private final List<DataGenerator<L>> selectedGenerators;
+
+    private final TargetFilter filter;
+
+    private final boolean planOnly;
+
+    private final RenderBenchmark<L> benchmark;
+
+    private final ChangeWatcher<L> watcher;
+
+    private boolean watching;
 
     private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final AtomicBoolean startedEarly = new AtomicBoolean(false);
     private final AtomicBoolean completed   = new AtomicBoolean(false);
 
     private CompletableFuture<Void> allGeneratorsFuture;
 
+    /**
+     * The generators started by {@link #tickBeforeLevel()}, joined into {@link #allGeneratorsFuture} once the rest start.
+     */
+    private List<CompletableFuture<Void>> earlyGeneratorFutures = List.of();
+
+    private final GenerationMetrics metrics = new GenerationMetrics();
+
     private final Deque<BatchedGeneratorState<L>> batchedGenerators = new ArrayDeque<>();
 
-    private static Set<String> readExcludedNamespaces()
-    {
-        final String env = System.getenv(ENV_EXCLUDED_NAMESPACES);
-        if (env == null || env.isBlank())
-        {
-            return Set.of();
-        }
-        return Arrays.stream(env.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toUnmodifiableSet());
-    }
+    /**
+     * Batched generators whose targets have been discovered on a worker thread, waiting to be picked up by {@link #tick()}.
+     */
+    private final Queue<BatchedGeneratorState<L>> discoveredBatchedGenerators = new ConcurrentLinkedQueue<>();
 
     public DataGeneratorManager(final RootEntrypoint<L> entrypoint)
     {
         this.entrypoint = entrypoint;
         this.generators = entrypoint.getGenerators();
-        this.excludedNamespaces = readExcludedNamespaces();
-        if (!excludedNamespaces.isEmpty())
+        this.filter = TargetFilter.fromEnvironment();
+        LOGGER.info("Generation filter: {}", filter);
+        this.selectedGenerators = generators.activeGenerators().stream().filter(filter::includesGenerator).toList();
+        if (!selectedGenerators.isEmpty() && selectedGenerators.stream().noneMatch(DataGenerator::requiresLevel))
+        {
+            LOGGER.info("No selected generator needs a level, world creation will be skipped.");
+        }
+        this.planOnly = Boolean.parseBoolean(System.getenv(ENV_PLAN_ONLY));
+        if (planOnly)
         {
-            LOGGER.info("Excluding namespaces from generation: {}", excludedNamespaces);
+            LOGGER.info("Plan mode enabled, no files will be generated or deleted.");
+        }
+        this.benchmark = planOnly ? null : RenderBenchmark.fromEnvironment();
+        if (benchmark != null)
+        {
+            LOGGER.info("Render benchmark mode enabled, no files will be kept or deleted.");
+        }
+        this.watcher = planOnly || benchmark != null ? null : ChangeWatcher.fromEnvironment(entrypoint.getOutputPath());
+        if (watcher != null)
+        {
+            LOGGER.info("Watch mode enabled, changes will be regenerated until stopped.");
         }
     }
 
@@ -78,104 +122,432 @@ public final class DataGeneratorManager<L>
     {
         if (!initialized.getAndSet(true))
         {
-            LOGGER.info("Starting data generation with {} generators...", generators.activeGenerators().size());
+            LOGGER.info("Starting data generation with {} generators...", selectedGenerators.size());
             if (!generators.inactiveGenerators().isEmpty())
             {
                 LOGGER.info("{} disabled generators will be skipped.", generators.inactiveGenerators().size());
             }
-            startAllGenerators();
+            if (selectedGenerators.size() < generators.activeGenerators().size())
+            {
+                LOGGER.info("{} generators are excluded by the generator filter.", generators.activeGenerators().size() - selectedGenerators.size());
+            }
+            if (planOnly)
+            {
+                writePlan();
+                completed.set(true);
+                LOGGER.info("Shutting down...");
+                this.entrypoint.shutdown();
+                return;
+            }
+            if (benchmark != null)
+            {
+                benchmark.start(selectedGenerators, entrypoint.getLevel(), filter, entrypoint.getOutputPath(), GSON);
+            }
+            else if (startedEarly.get())
+            {
+                startRemainingGenerators();
+            }
+            else
+            {
+                startAllGenerators();
+            }
         }
 
-        if (!batchedGenerators.isEmpty())
+        if (benchmark != null)
         {
-            final BatchedGeneratorState<L> active = batchedGenerators.getFirst();
-            if (active.isDrained())
+            if (benchmark.tick() && !completed.getAndSet(true))
             {
-                active.complete();
-                batchedGenerators.pop();
+                benchmark.writeResults(entrypoint.getOutputPath(), GSON);
+                LOGGER.info("Shutting down...");
+                this.entrypoint.shutdown();
             }
-            else
+            return;
+        }
+
+        processBatchedGenerators();
+
+        if (allGeneratorsFuture != null && allGeneratorsFuture.isDone() && !completed.get())
+        {
+            if (watcher != null)
             {
-                active.processBatch();
+                tickWatcher();
             }
+            else if (!completed.getAndSet(true))
+            {
+                metrics.finished();
+                LOGGER.info("All data generation complete! {}", metrics);
+                LOGGER.info("Shutting down...");
+                this.entrypoint.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Called once per game tick while the world is still loading, once the game's resources have loaded.
+     * Starts the selected generators that do not require a level on the first call, so their work overlaps
+     * with world creation, and advances any of them that are batched. Does nothing in plan or render
+     * benchmark mode, which start with the first {@link #tick()}.
+     */
+    public void tickBeforeLevel()
+    {
+        if (planOnly || benchmark != null || initialized.get())
+        {
+            return;
         }
 
-        if (allGeneratorsFuture != null && allGeneratorsFuture.isDone() && !completed.getAndSet(true))
+        if (!startedEarly.getAndSet(true))
+        {
+            final List<DataGenerator<L>> early = selectedGenerators.stream().filter(generator -> !generator.requiresLevel()).toList();
+            LOGGER.info("Starting {} generators that need no level while the world loads...", early.size());
+            metrics.started();
+            earlyGeneratorFutures = startGenerators(early);
+        }
+
+        processBatchedGenerators();
+    }
+
+    /**
+     * Called by the entrypoint whenever the game's resources have been reloaded, on any thread.
+     * In watch mode, every generator that depends on resources is regenerated.
+     */
+    public void onResourcesReloaded()
+    {
+        if (watcher != null)
+        {
+            watcher.resourcesReloaded();
+        }
+    }
+
+    /**
+     * Whether any selected generator {@link DataGenerator#requiresLevel() needs a level}, so the entrypoint
+     * has to load a world before ticking the manager.
+     */
+    public boolean requiresLevel()
+    {
+        return selectedGenerators.stream().anyMatch(DataGenerator::requiresLevel);
+    }
+
+    /**
+     * The progress of the batched generator currently processing targets on the render thread, or {@code null}
+     * when none is. Only valid on the thread calling {@link #tick()}.
+     */
+    public BatchProgress getBatchProgress()
+    {
+        final BatchedGeneratorState<L> active = batchedGenerators.peekFirst();
+        return active == null ? null : new BatchProgress(active.generator.getName(), active.next, active.targets.length);
+    }
+
+    /**
+     * Runs further batches of the active batched generators after {@link #tick()}, back to back until
+     * {@code budgetNanos} have passed, all targets are handed out, or the workers fall behind. Lets an entrypoint
+     * that leaves the render thread to generation render more than one batch per game tick. Only call on the
+     * thread calling {@link #tick()}.
+     */
+    public void processBatches(final long budgetNanos)
+    {
+        final long deadline = System.nanoTime() + budgetNanos;
+        boolean progressed = true;
+        while (progressed && System.nanoTime() < deadline)
         {
-            LOGGER.info("All data generation complete!");
-            LOGGER.info("Shutting down...");
-            this.entrypoint.shutdown();
+            progressed = processBatchedGenerators();
         }
     }
 
+    /**
+     * The counters of this run, complete once the manager has shut the entrypoint down.
+     */
+    public GenerationMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     private void startAllGenerators()
     {
-        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        metrics.started();
+        allGeneratorsFuture = CompletableFuture.allOf(startGenerators(selectedGenerators).toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Starts the generators {@link #tickBeforeLevel()} left for the level, completing once they and the early ones are done.
+     */
+    private void startRemainingGenerators()
+    {
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(earlyGeneratorFutures);
+        futures.addAll(startGenerators(selectedGenerators.stream().filter(DataGenerator::requiresLevel).toList()));
+        allGeneratorsFuture = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    private List<CompletableFuture<Void>> startGenerators(final List<DataGenerator<L>> toStart)
+    {
         final L level = entrypoint.getLevel();
         final Path rootPath = this.entrypoint.getOutputPath();
 
-        for (final DataGenerator<L> generator : generators.activeGenerators())
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (final DataGenerator<L> generator : toStart)
         {
-            LOGGER.info("Starting generator: {}", generator.getName());
+            futures.add(startGenerator(generator, new TargetContext<>(level, filter), generator.getGeneratorOutputPath(rootPath), null).exceptionally(throwable -> {
+                LOGGER.error("Generator '{}' failed:", generator.getName(), throwable);
+                return null;
+            }));
+        }
+        return futures;
+    }
 
-            final Path generatorOutputPath = generator.getGeneratorOutputPath(rootPath);
-            final Set<GeneratorTarget> allTargets = generator.listTargets(level);
+    /**
+     * Advances the active batched generator by one batch, or completes it once it has handed out all targets.
+     *
+     * @return whether there was a batched generator that made progress
+     */
+    private boolean processBatchedGenerators()
+    {
+        BatchedGeneratorState<L> discovered;
+        while ((discovered = discoveredBatchedGenerators.poll()) != null)
+        {
+            batchedGenerators.add(discovered);
+        }
 
-            if (generator.shouldClearBeforeGeneration())
+        if (!batchedGenerators.isEmpty())
+        {
+            final BatchedGeneratorState<L> active = batchedGenerators.getFirst();
+            if (active.isDrained())
+            {
+                active.complete();
+                batchedGenerators.pop();
+                return true;
+            }
+            return active.processBatch();
+        }
+        return false;
+    }
+
+    /**
+     * Runs between passes in watch mode: starts the watcher after the first pass, shuts down once a stop is
+     * requested, and otherwise starts a pass for the changes collected so far.
+     */
+    private void tickWatcher()
+    {
+        if (!watching)
+        {
+            watching = true;
+            metrics.finished();
+            LOGGER.info("Initial data generation complete! {}", metrics);
+            try
+            {
+                watcher.start(selectedGenerators);
+            }
+            catch (IOException e)
             {
-                deleteUnindexedFiles(generatorOutputPath, allTargets);
+                LOGGER.error("Could not start watching for changes", e);
+                stopWatching();
+                return;
             }
+        }
+
+        if (watcher.isStopRequested())
+        {
+            stopWatching();
+            return;
+        }
+
+        final List<ChangeWatcher.Change<L>> changes = watcher.poll();
+        if (changes.isEmpty())
+        {
+            return;
+        }
+
+        final Path rootPath = this.entrypoint.getOutputPath();
+        final long start = System.nanoTime();
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (final ChangeWatcher.Change<L> change : changes)
+        {
+            final DataGenerator<L> generator = change.generator();
+            futures.add(startGenerator(generator, new TargetContext<>(entrypoint.getLevel(), filter), generator.getGeneratorOutputPath(rootPath), change.files()).exceptionally(throwable -> {
+                LOGGER.error("Generator '{}' failed:", generator.getName(), throwable);
+                return null;
+            }));
+        }
 
-            final List<GeneratorTarget> targets = allTargets.stream().filter(t -> !excludedNamespaces.contains(t.namespace())).toList();
+        allGeneratorsFuture = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .whenComplete((result, throwable) -> LOGGER.info("Regenerated {} changed generators in {} ms. Watching for changes...",
+                changes.size(),
+                (System.nanoTime() - start) / 1_000_000));
+    }
 
-            LOGGER.info("{}: generating {}/{} targets ({} excluded namespaces)", generator.getName(), targets.size(), allTargets.size(), allTargets.size() - targets.size());
+    private void stopWatching()
+    {
+        if (completed.getAndSet(true))
+        {
+            return;
+        }
+        try
+        {
+            watcher.close();
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Could not stop watching for changes", e);
+        }
+        LOGGER.info("Watch mode stopped. {}", metrics);
+        LOGGER.info("Shutting down...");
+        this.entrypoint.shutdown();
+    }
 
-            final DataGeneratorOptions<L> options = new DataGeneratorOptions<>(generatorOutputPath, GSON, level);
+    /**
+     * Starts a single generator without blocking the calling thread. Target discovery runs on a worker,
+     * after which stale-file cleanup and generation are started side by side: cleanup only deletes files
+     * outside the target set, so it never touches a file the generator is about to write.
+     *
+     * @param context      a new context for the generator to list its targets into
+     * @param changedFiles in watch mode, the changed source files to limit generation to their affected targets,
+     *                     or {@code null} to generate every selected target
+     */
+    private CompletableFuture<Void> startGenerator(
+        final DataGenerator<L> generator,
+        final TargetContext<L> context,
+        final Path generatorOutputPath,
+        final Collection<Path> changedFiles)
+    {
+        LOGGER.info("Starting generator: {}", generator.getName());
+
+        return CompletableFuture.supplyAsync(() -> {
+            final long start = System.nanoTime();
+            generator.listTargets(context);
+            final TargetStore allTargets = context.getTargets();
+            metrics.discovered(allTargets.size(), System.nanoTime() - start);
+            return allTargets;
+        }, DataGenerator.WORKERS).thenCompose(allTargets -> {
+            final CompletableFuture<Void> cleanupFuture = generator.shouldClearBeforeGeneration()
+                ? CompletableFuture.runAsync(() -> deleteUnindexedFiles(generator, generatorOutputPath, allTargets), DataGenerator.WORKERS)
+                : CompletableFuture.completedFuture(null);
+
+            final int[] targets = changedFiles == null ? allTargets.select(filter) : selectAffected(generator, allTargets, changedFiles);
 
+            // Targets the generator skipped while listing never reach the store, so they are counted by the context
+            LOGGER.info("{}: generating {}/{} targets ({} filtered, {} namespaces skipped)",
+                generator.getName(),
+                targets.length,
+                allTargets.size(),
+                context.getSkippedTargets() + allTargets.size() - targets.length,
+                context.getSkippedNamespaces());
+
+            final DataGeneratorOptions<L> options = new DataGeneratorOptions<>(generatorOutputPath, GSON, context.getLevel());
+
+            final CompletableFuture<Void> generationFuture;
             final Integer batchSize = generator.batchSize();
             if (batchSize != null)
             {
-                final CompletableFuture<Void> batchFuture = new CompletableFuture<>();
-                batchedGenerators.add(new BatchedGeneratorState<>(generator, targets, options, batchSize, batchFuture));
-                futures.add(batchFuture);
+                generationFuture = new CompletableFuture<>();
+                discoveredBatchedGenerators.add(new BatchedGeneratorState<>(generator, allTargets, targets, options, batchSize, generationFuture, metrics));
             }
             else
             {
-                final List<CompletableFuture<Void>> targetFutures = targets.stream().map(target -> generator.generate(target, options).whenComplete((result, throwable) -> {
-                    if (throwable != null)
-                    {
-                        LOGGER.error("Generator '{}' failed for target '{}':", generator.getName(), target, throwable);
-                    }
-                })).toList();
-                futures.add(CompletableFuture.allOf(targetFutures.toArray(new CompletableFuture[0])));
+                final CompletableFuture<?>[] targetFutures = new CompletableFuture[targets.length];
+                for (int i = 0; i < targets.length; i++)
+                {
+                    final GeneratorTarget target = allTargets.get(targets[i]);
+                    targetFutures[i] = generator.generate(target, options).whenComplete((result, throwable) -> {
+                        if (throwable != null)
+                        {
+                            metrics.failed();
+                            LOGGER.error("Generator '{}' failed for target '{}':", generator.getName(), target, throwable);
+                        }
+                        else
+                        {
+                            metrics.generated();
+                        }
+                    });
+                }
+                generationFuture = CompletableFuture.allOf(targetFutures);
             }
-        }
 
-        allGeneratorsFuture = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+            final CompletableFuture<Void> completionFuture = generationFuture
+                .handle((result, throwable) -> null)
+                .thenComposeAsync(ignored -> generator.onTargetsCompleted(options), DataGenerator.WORKERS)
+                .exceptionally(throwable -> {
+                    LOGGER.error("{}: could not finish generation", generator.getName(), throwable);
+                    return null;
+                });
+
+            return CompletableFuture.allOf(cleanupFuture.exceptionally(throwable -> {
+                LOGGER.error("{}: could not clean up stale output files", generator.getName(), throwable);
+                return null;
+            }), generationFuture, completionFuture);
+        });
     }
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
-    private void deleteUnindexedFiles(final Path outputPath, final Set<GeneratorTarget> allTargets)
+    /**
+     * The selected targets affected by {@code changedFiles}, according to {@link DataGenerator#getAffectedTargets}.
+     */
+    private int[] selectAffected(final DataGenerator<L> generator, final TargetStore allTargets, final Collection<Path> changedFiles)
     {
-        if (!Files.exists(outputPath))
+        final int[] selected = allTargets.select(filter);
+        final Set<GeneratorTarget> affected = generator.getAffectedTargets(changedFiles);
+        if (affected == null)
         {
-            return;
+            return selected;
         }
-        try (Stream<Path> walk = Files.walk(outputPath))
+        final BitSet affectedIndices = new BitSet(allTargets.size());
+        for (final GeneratorTarget target : affected)
         {
-            walk.filter(p -> !Files.isDirectory(p)).filter(p -> {
-                final String relative = outputPath.relativize(p).toString().replace('\\', '/');
-                final int dot = relative.lastIndexOf('.');
-                final String stripped = dot >= 0 ? relative.substring(0, dot) : relative;
-                final int slash = stripped.indexOf('/');
-                if (slash < 0)
-                {
-                    return true;
-                }
-                final String namespace = stripped.substring(0, slash);
-                final String filePath = stripped.substring(slash + 1);
-                return !allTargets.contains(new GeneratorTarget(namespace, filePath));
-            }).map(Path::toFile).forEach(File::delete);
+            final int index = allTargets.indexOf(target.namespace(), target.path());
+            if (index >= 0)
+            {
+                affectedIndices.set(index);
+            }
+        }
+        return Arrays.stream(selected).filter(affectedIndices::get).toArray();
+    }
+
+    private void writePlan()
+    {
+        final GenerationPlan plan = new GenerationPlan();
+        final Path rootPath = this.entrypoint.getOutputPath();
+
+        for (final DataGenerator<L> generator : selectedGenerators)
+        {
+            // List without the filter, so the plan can count the targets it excludes
+            final TargetContext<L> context = new TargetContext<>(entrypoint.getLevel(), TargetFilter.NONE);
+            generator.listTargets(context);
+            final TargetStore allTargets = context.getTargets();
+            try
+            {
+                plan.add(generator, generator.getGeneratorOutputPath(rootPath), allTargets, allTargets.select(filter), filter);
+            }
+            catch (IOException e)
+            {
+                LOGGER.error("{}: could not compare targets against existing output", generator.getName(), e);
+            }
+        }
+
+        final Path planPath = rootPath.resolve(PLAN_FILE);
+        try
+        {
+            Files.createDirectories(rootPath);
+            Files.writeString(planPath, GSON.toJson(plan.toJson()), StandardCharsets.UTF_8);
+            LOGGER.info("Generation plan written to {}", planPath);
+        }
+        catch (IOException e)
+        {
+            LOGGER.error("Could not write generation plan to {}", planPath, e);
+        }
+    }
+
+    /**
+     * Deletes every file in {@code outputPath} that does not belong to one of {@code allTargets}, along with
+     * directories left empty. Files the filter excludes are kept, since the generator never listed those targets in this run.
+     */
+    private void deleteUnindexedFiles(final DataGenerator<L> generator, final Path outputPath, final TargetStore allTargets)
+    {
+        try
+        {
+            final long start = System.nanoTime();
+            final int deleted = new OutputCleaner(outputPath, allTargets, filter).clean();
+            metrics.cleaned(deleted, System.nanoTime() - start);
+            if (deleted > 0)
+            {
+                LOGGER.info("{}: deleted {} stale files", generator.getName(), deleted);
+            }
         }
         catch (IOException e)
         {
@@ -183,60 +555,118 @@ public final class DataGeneratorManager<L>
         }
     }
 
+    /**
+     * How far the active batched generator has come.
+     *
+     * @param generatorName the {@link DataGenerator#getName() name} of the generator
+     * @param completed     the number of targets processed so far
+     * @param total         the number of targets to process in this pass
+     */
+    public record BatchProgress(
+        String generatorName,
+        int completed,
+        int total)
+    {
+    }
+
     private static final class BatchedGeneratorState<L>
     {
+        /**
+         * How many batches of targets may still be finishing off the render thread before no further batch is
+         * started, so a fast renderer does not pile up read-back images faster than the workers encode them.
+         */
+        private static final int MAX_PENDING_BATCHES = 4;
+
         private final DataGenerator<L>        generator;
-        private final Deque<GeneratorTarget>  queue;
+        private final TargetStore             store;
+        private final int[]                   targets;
         private final DataGeneratorOptions<L> options;
         private final int                     batchSize;
         private final CompletableFuture<Void> completionFuture;
-        private final int                     total;
-        private final AtomicInteger           done = new AtomicInteger(0);
+        private final GenerationMetrics       metrics;
+        private       int                     next;
+
+        /**
+         * Targets handed to the generator whose future has not completed yet, e.g. while their pixels are read back.
+         */
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
 
         BatchedGeneratorState(
             final DataGenerator<L> generator,
-            final List<GeneratorTarget> targets,
+            final TargetStore store,
+            final int[] targets,
             final DataGeneratorOptions<L> options,
             final int batchSize,
-            final CompletableFuture<Void> completionFuture)
+            final CompletableFuture<Void> completionFuture,
+            final GenerationMetrics metrics)
         {
             this.generator = generator;
-            this.queue = new ArrayDeque<>(targets);
+            this.store = store;
+            this.targets = targets;
             this.options = options;
             this.batchSize = batchSize;
             this.completionFuture = completionFuture;
-            this.total = targets.size();
+            this.metrics = metrics;
         }
 
         boolean isDrained()
         {
-            return queue.isEmpty();
+            return next >= targets.length;
         }
 
+        /**
+         * Lets the generator finish the work it deferred, then completes once every target has.
+         */
         void complete()
         {
-            completionFuture.complete(null);
+            generator.onBatchesDrained();
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).thenRun(() -> completionFuture.complete(null));
         }
 
-        void processBatch()
+        /**
+         * Hands the next batch of targets to the generator. Generators may complete a target in a later batch or
+         * on a worker, so the returned futures are collected instead of waited for.
+         *
+         * @return whether a batch was started, {@code false} while too many targets are still finishing
+         */
+        boolean processBatch()
         {
-            for (int i = 0; i < batchSize && !queue.isEmpty(); i++)
+            pending.removeIf(CompletableFuture::isDone);
+            if (pending.size() >= batchSize * MAX_PENDING_BATCHES)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < batchSize && !isDrained(); i++)
             {
-                final GeneratorTarget target = queue.poll();
+                final GeneratorTarget target = store.get(targets[next++]);
+                CompletableFuture<Void> future;
                 try
                 {
-                    generator.generate(target, options).join();
-                    final int count = done.incrementAndGet();
-                    if (count % 100 == 0)
-                    {
-                        LOGGER.info("{}: {}/{}", generator.getName(), count, total);
-                    }
+                    future = generator.generate(target, options);
                 }
                 catch (Exception e)
                 {
-                    LOGGER.error("{}: error generating target '{}'", generator.getName(), target, e);
+                    future = CompletableFuture.failedFuture(e);
+                }
+                pending.add(future.handle((result, throwable) -> {
+                    if (throwable != null)
+                    {
+                        metrics.failed();
+                        LOGGER.error("{}: error generating target '{}'", generator.getName(), target, throwable);
+                    }
+                    else
+                    {
+                        metrics.generated();
+                    }
+                    return null;
+                }));
+                if (next % 100 == 0)
+                {
+                    LOGGER.info("{}: {}/{}", generator.getName(), next, targets.length);
                 }
             }
+            return true;
         }
     }
 }
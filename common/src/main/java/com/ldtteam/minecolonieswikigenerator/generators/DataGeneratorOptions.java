@@ -25,11 +25,22 @@ public class DataGeneratorOptions<L>
 
     private final L level;
 
+    private final boolean discardOutput;
+
+    private final StageTimer stageTimer;
+
     DataGeneratorOptions(final Path outputPath, final Gson gson, final L level)
+    {
+        this(outputPath, gson, level, false, StageTimer.NONE);
+    }
+
+    DataGeneratorOptions(final Path outputPath, final Gson gson, final L level, final boolean discardOutput, final StageTimer stageTimer)
     {
         this.outputPath = outputPath;
         this.gson = gson;
         this.level = level;
+        this.discardOutput = discardOutput;
+        this.stageTimer = stageTimer;
     }
 
     /**
@@ -42,7 +53,8 @@ public class DataGeneratorOptions<L>
 
     /**
      * The current level instance, useful for generators that need world or registry access beyond
-     * what {@link DataGenerator#listTargets} already resolved.
+     * what {@link DataGenerator#listTargets} already resolved, or {@code null} when no selected generator
+     * {@link DataGenerator#requiresLevel() requires one}.
      */
     public L getLevel()
     {
@@ -57,6 +69,23 @@ public class DataGeneratorOptions<L>
         return gson;
     }
 
+    /**
+     * Whether written files are thrown away, as in render benchmark mode. Generators that keep their own state
+     * on disk, such as hash files, should neither read nor write it when this is set.
+     */
+    public boolean isDiscardingOutput()
+    {
+        return discardOutput;
+    }
+
+    /**
+     * The timer image generators report their {@link RenderStage}s to.
+     */
+    public StageTimer getStageTimer()
+    {
+        return stageTimer;
+    }
+
     /**
      * Serialises {@code json} and writes it to {@code <outputPath>/<namespace>/<path>.json},
      * creating parent directories as needed.
@@ -68,10 +97,15 @@ public class DataGeneratorOptions<L>
 
     /**
      * Writes raw {@code data} to {@code <outputPath>/<namespace>/<path>.<extension>},
-     * creating parent directories as needed.
+     * creating parent directories as needed. Does nothing when {@link #isDiscardingOutput() discarding output}.
      */
     public void saveFile(final String namespace, final String path, final String extension, final byte[] data) throws IOException
     {
+        if (discardOutput)
+        {
+            return;
+        }
+
         final Path filePath = outputPath.resolve(namespace).resolve(path + "." + extension);
 
         Files.createDirectories(filePath.getParent());
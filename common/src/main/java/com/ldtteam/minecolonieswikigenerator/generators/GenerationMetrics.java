@@ -0,0 +1,132 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters collected by the {@link DataGeneratorManager} over a single generation run.
+ *
+ * <p>Updated concurrently from worker threads and the render thread, and read once the run completes,
+ * either for the summary log line or by harnesses that drive the manager directly.
+ */
+public final class GenerationMetrics
+{
+    private final LongAdder targetsListed    = new LongAdder();
+    private final LongAdder targetsGenerated = new LongAdder();
+    private final LongAdder targetsFailed    = new LongAdder();
+    private final LongAdder filesDeleted     = new LongAdder();
+    private final LongAdder discoveryNanos   = new LongAdder();
+    private final LongAdder cleanupNanos     = new LongAdder();
+
+    private final AtomicLong startNanos = new AtomicLong();
+    private final AtomicLong endNanos   = new AtomicLong();
+
+    void started()
+    {
+        startNanos.set(System.nanoTime());
+    }
+
+    void finished()
+    {
+        endNanos.set(System.nanoTime());
+    }
+
+    void discovered(final int targets, final long nanos)
+    {
+        targetsListed.add(targets);
+        discoveryNanos.add(nanos);
+    }
+
+    void cleaned(final int deleted, final long nanos)
+    {
+        filesDeleted.add(deleted);
+        cleanupNanos.add(nanos);
+    }
+
+    void generated()
+    {
+        targetsGenerated.increment();
+    }
+
+    void failed()
+    {
+        targetsFailed.increment();
+    }
+
+    /**
+     * The number of targets listed by all generators, before filtering.
+     */
+    public long getTargetsListed()
+    {
+        return targetsListed.sum();
+    }
+
+    /**
+     * The number of targets whose output was written successfully.
+     */
+    public long getTargetsGenerated()
+    {
+        return targetsGenerated.sum();
+    }
+
+    /**
+     * The number of targets whose generation failed.
+     */
+    public long getTargetsFailed()
+    {
+        return targetsFailed.sum();
+    }
+
+    /**
+     * The number of stale files deleted by cleanup.
+     */
+    public long getFilesDeleted()
+    {
+        return filesDeleted.sum();
+    }
+
+    /**
+     * Time spent in {@link DataGenerator#listTargets}, summed over all generators.
+     */
+    public long getDiscoveryNanos()
+    {
+        return discoveryNanos.sum();
+    }
+
+    /**
+     * Time spent cleaning up stale files, summed over all generators. Cleanup overlaps with generation,
+     * so this is worker time rather than wall time.
+     */
+    public long getCleanupNanos()
+    {
+        return cleanupNanos.sum();
+    }
+
+    /**
+     * Wall time from starting the generators until all of them completed, or until now while still running.
+     */
+    public long getElapsedNanos()
+    {
+        final long start = startNanos.get();
+        if (start == 0)
+        {
+            return 0;
+        }
+        final long end = endNanos.get();
+        return (end == 0 ? System.nanoTime() : end) - start;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d/%d targets generated, %d failed, %d stale files deleted in %d ms (discovery %d ms, cleanup %d ms)",
+            getTargetsGenerated(),
+            getTargetsListed(),
+            getTargetsFailed(),
+            getFilesDeleted(),
+            TimeUnit.NANOSECONDS.toMillis(getElapsedNanos()),
+            TimeUnit.NANOSECONDS.toMillis(getDiscoveryNanos()),
+            TimeUnit.NANOSECONDS.toMillis(getCleanupNanos()));
+    }
+}
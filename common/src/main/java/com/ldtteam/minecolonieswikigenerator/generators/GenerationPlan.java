@@ -0,0 +1,178 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Dry-run summary of a generation run, produced by the manager in plan mode instead of generating.
+ *
+ * <p>Each entry compares a generator's target set against the files currently on disk, showing how
+ * many files would be created or overwritten, how many stale files cleanup would delete, and how
+ * large the output is likely to be. Building the plan never writes or deletes output files.
+ */
+final class GenerationPlan
+{
+    private final List<GeneratorPlan> generators = new ArrayList<>();
+
+    /**
+     * Compares the targets of a single generator against its output folder and adds the result to this plan.
+     *
+     * @param generator  the generator being planned
+     * @param outputPath the generator output folder
+     * @param allTargets the full target set listed by {@link DataGenerator#listTargets}
+     * @param targets    the indices of the targets in {@code allTargets} that remain after filtering
+     * @param filter     the run's target filter, files it excludes are never counted as stale
+     */
+    void add(
+        final DataGenerator<?> generator,
+        final Path outputPath,
+        final TargetStore allTargets,
+        final int[] targets,
+        final TargetFilter filter) throws IOException
+    {
+        // Indexed like allTargets, -1 for targets without any file on disk
+        final long[] existingFiles = new long[allTargets.size()];
+        Arrays.fill(existingFiles, -1);
+        int stale = 0;
+        long staleBytes = 0;
+
+        if (Files.exists(outputPath))
+        {
+            try (Stream<Path> walk = Files.walk(outputPath))
+            {
+                for (final Path file : (Iterable<Path>) walk.filter(p -> !Files.isDirectory(p))::iterator)
+                {
+                    final long size = Files.size(file);
+                    final GeneratorTarget target = GeneratorTarget.fromFile(outputPath, file);
+                    final int index = allTargets.indexOf(target.namespace(), target.path());
+                    if (index >= 0)
+                    {
+                        existingFiles[index] = Math.max(existingFiles[index], 0) + size;
+                    }
+                    else if (generator.shouldClearBeforeGeneration() && filter.includes(target))
+                    {
+                        stale++;
+                        staleBytes += size;
+                    }
+                }
+            }
+        }
+
+        int overwritten = 0;
+        long existingBytes = 0;
+        for (final int target : targets)
+        {
+            if (existingFiles[target] >= 0)
+            {
+                overwritten++;
+                existingBytes += existingFiles[target];
+            }
+        }
+
+        final int created = targets.length - overwritten;
+        // Without any previous output there is nothing to extrapolate from, so the estimate only covers files already on disk
+        final long estimatedBytes = overwritten > 0 ? existingBytes + existingBytes / overwritten * created : 0;
+
+        generators.add(new GeneratorPlan(generator.getName(),
+            outputPath.getFileName().toString(),
+            generator.batchSize() != null,
+            allTargets.size(),
+            allTargets.size() - targets.length,
+            created,
+            overwritten,
+            stale,
+            staleBytes,
+            existingBytes,
+            estimatedBytes));
+    }
+
+    /**
+     * Serialises the plan, including per-generator entries and totals across all generators.
+     */
+    JsonObject toJson()
+    {
+        final JsonArray generatorsJson = new JsonArray();
+        GeneratorPlan totals = new GeneratorPlan("total", "", false, 0, 0, 0, 0, 0, 0, 0, 0);
+        for (final GeneratorPlan generator : generators)
+        {
+            generatorsJson.add(generator.toJson());
+            totals = totals.plus(generator);
+        }
+
+        final JsonObject json = new JsonObject();
+        json.add("generators", generatorsJson);
+        json.add("totals", totals.toJson());
+        return json;
+    }
+
+    /**
+     * The planned outcome for a single generator.
+     *
+     * @param name           the generator name
+     * @param folder         the generator output folder name
+     * @param batched        whether the generator runs in batches on the render thread
+     * @param targets        the number of targets listed by the generator
+     * @param excluded       the number of listed targets dropped by the target filter
+     * @param created        the number of targets that have no output file yet
+     * @param overwritten    the number of targets whose output file already exists and would be replaced
+     * @param stale          the number of files cleanup would delete
+     * @param staleBytes     the total size of the files cleanup would delete
+     * @param existingBytes  the current size of the output files that would be replaced
+     * @param estimatedBytes the expected size of the output after generation
+     */
+    record GeneratorPlan(
+        String name,
+        String folder,
+        boolean batched,
+        int targets,
+        int excluded,
+        int created,
+        int overwritten,
+        int stale,
+        long staleBytes,
+        long existingBytes,
+        long estimatedBytes)
+    {
+        GeneratorPlan plus(final GeneratorPlan other)
+        {
+            return new GeneratorPlan(name,
+                folder,
+                batched,
+                targets + other.targets,
+                excluded + other.excluded,
+                created + other.created,
+                overwritten + other.overwritten,
+                stale + other.stale,
+                staleBytes + other.staleBytes,
+                existingBytes + other.existingBytes,
+                estimatedBytes + other.estimatedBytes);
+        }
+
+        JsonObject toJson()
+        {
+            final JsonObject json = new JsonObject();
+            json.addProperty("name", name);
+            if (!folder.isEmpty())
+            {
+                json.addProperty("folder", folder);
+                json.addProperty("batched", batched);
+            }
+            json.addProperty("targets", targets);
+            json.addProperty("excluded", excluded);
+            json.addProperty("generate", created + overwritten);
+            json.addProperty("create", created);
+            json.addProperty("overwrite", overwritten);
+            json.addProperty("stale", stale);
+            json.addProperty("staleBytes", staleBytes);
+            json.addProperty("existingBytes", existingBytes);
+            json.addProperty("estimatedBytes", estimatedBytes);
+            return json;
+        }
+    }
+}
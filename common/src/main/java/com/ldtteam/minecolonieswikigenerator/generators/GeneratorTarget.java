@@ -1,5 +1,7 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
+import java.nio.file.Path;
+
 /**
  * Identifies a single output file a generator intends to produce.
  *
@@ -14,6 +16,24 @@ public record GeneratorTarget(
     String namespace,
     String path)
 {
+    /**
+     * Resolves the target that produced {@code file}, given the generator output folder it lives in.
+     * The first path segment is the namespace, the rest (without extension) is the path. Files that sit
+     * directly in the output folder belong to a target with an empty namespace.
+     */
+    static GeneratorTarget fromFile(final Path outputPath, final Path file)
+    {
+        final String relative = outputPath.relativize(file).toString().replace('\\', '/');
+        final int dot = relative.lastIndexOf('.');
+        final String stripped = dot >= 0 ? relative.substring(0, dot) : relative;
+        final int slash = stripped.indexOf('/');
+        if (slash < 0)
+        {
+            return new GeneratorTarget("", stripped);
+        }
+        return new GeneratorTarget(stripped.substring(0, slash), stripped.substring(slash + 1));
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,500 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.ldtteam.minecolonieswikigenerator.images.ContentBounds;
+import com.ldtteam.minecolonieswikigenerator.images.ImageEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.ImageFormat;
+import com.ldtteam.minecolonieswikigenerator.images.ImageKernels;
+import com.ldtteam.minecolonieswikigenerator.images.RgbaImage;
+import com.ldtteam.minecolonieswikigenerator.images.ShelfPacker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saves the images of an image generator, as one file per target or, with {@code IMAGE_ATLAS} set, packed into
+ * sprite-sheet atlases per namespace so the wiki loads a few sheets instead of hundreds of files.
+ *
+ * <p>In atlas mode every image is trimmed to its content, compressed as QOI and spilled to a temporary directory per
+ * namespace, so only the size and offsets of each image stay in memory until the pass completes.
+ * {@link #writeAtlases} then packs each namespace with a {@link ShelfPacker} into square sheets of
+ * {@code IMAGE_ATLAS_SIZE} pixels (default {@value #DEFAULT_ATLAS_SIZE}) and writes them to
+ * {@code <generator folder>_atlas/<namespace>/}, along with an {@code atlas.json} map:
+ * <pre>
+ * {
+ *   "sheetWidth": 2048, "sheetHeight": 2048, "imageWidth": 300, "imageHeight": 300,
+ *   "sheets": ["atlas-0.png"],
+ *   "images": {"stone": {"sheet": 0, "x": 0, "y": 0, "width": 180, "height": 200, "offsetX": 60, "offsetY": 50}}
+ * }
+ * </pre>
+ * The offsets place a trimmed image in its original frame; empty images have a size of zero and no sheet. Sheets are
+ * listed by their PNG name, also when written in an intermediate {@link ImageFormat} that is converted later. Images
+ * a pass did not render, e.g. because the run was filtered, are carried over from the previous atlas unless their
+ * target no longer exists. No per-target files are written in atlas mode.
+ */
+final class ImageOutput
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ENV_ATLAS      = "IMAGE_ATLAS";
+    private static final String ENV_ATLAS_SIZE = "IMAGE_ATLAS_SIZE";
+
+    private static final int    DEFAULT_ATLAS_SIZE = 2048;
+    private static final int    PADDING            = 2;
+    private static final String MAP_FILE           = "atlas.json";
+    private static final String SHEET_PREFIX       = "atlas-";
+
+    /**
+     * Compresses the images spilled for the atlas until they are packed.
+     */
+    private static final ImageEncoder TILE_ENCODER = new ImageEncoder(ImageFormat.QOI, null);
+
+    private final ImageEncoder encoder;
+    private final int          imageSize;
+    private final int          atlasSize;
+
+    /**
+     * The images of the current pass in atlas mode, by namespace and target path.
+     */
+    private final Map<String, Map<String, Tile>> tiles = new ConcurrentHashMap<>();
+
+    /**
+     * The temporary directory holding the tile files of each namespace, removed once its atlas is written.
+     */
+    private final Map<String, Path> spillDirectories = new ConcurrentHashMap<>();
+
+    /**
+     * Names the tile files, target paths may contain separators.
+     */
+    private final AtomicInteger spilledTiles = new AtomicInteger();
+
+    private volatile TargetContext<?> context;
+
+    /**
+     * @param encoder   the encoder of per-target files and atlas sheets
+     * @param imageSize the width and height of the images
+     * @param atlasSize the width and height of the atlas sheets, or 0 to write one file per target
+     */
+    ImageOutput(final ImageEncoder encoder, final int imageSize, final int atlasSize)
+    {
+        this.encoder = encoder;
+        this.imageSize = imageSize;
+        this.atlasSize = atlasSize;
+    }
+
+    /**
+     * Reads {@code IMAGE_ATLAS} ({@code true} for atlas mode) and {@code IMAGE_ATLAS_SIZE}, which must fit an image.
+     */
+    static ImageOutput fromEnvironment(final ImageEncoder encoder, final int imageSize)
+    {
+        if (!Boolean.parseBoolean(System.getenv(ENV_ATLAS)))
+        {
+            return new ImageOutput(encoder, imageSize, 0);
+        }
+
+        int atlasSize = DEFAULT_ATLAS_SIZE;
+        final String value = System.getenv(ENV_ATLAS_SIZE);
+        if (value != null && !value.isBlank())
+        {
+            try
+            {
+                atlasSize = Integer.parseInt(value.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                atlasSize = -1;
+            }
+            if (atlasSize < imageSize)
+            {
+                LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", value, ENV_ATLAS_SIZE, DEFAULT_ATLAS_SIZE);
+                atlasSize = DEFAULT_ATLAS_SIZE;
+            }
+        }
+        return new ImageOutput(encoder, imageSize, atlasSize);
+    }
+
+    /**
+     * Remembers the context the targets of the next pass were listed into, so carrying images over from the previous
+     * atlas can tell targets the run filtered out from targets that no longer exist.
+     */
+    void setTargets(final TargetContext<?> context)
+    {
+        this.context = context;
+    }
+
+    /**
+     * Encodes and writes {@code image} as the file of {@code target}, or spills it for the atlas of its namespace.
+     * Reports the time taken as {@link RenderStage#ENCODE}.
+     */
+    void save(final GeneratorTarget target, final RgbaImage image, final DataGeneratorOptions<?> options) throws IOException
+    {
+        final StageTimer timer = options.getStageTimer();
+        final long start = System.nanoTime();
+        if (atlasSize == 0)
+        {
+            final byte[] encoded = encoder.encode(image);
+            timer.record(RenderStage.ENCODE, start);
+            options.saveFile(target.namespace(), target.path(), encoder.getExtension(), encoded);
+            return;
+        }
+
+        final Tile tile = Tile.of(image, options.isDiscardingOutput() ? null : spillFile(target.namespace()));
+        timer.record(RenderStage.ENCODE, start);
+        if (!options.isDiscardingOutput())
+        {
+            tiles.computeIfAbsent(target.namespace(), namespace -> new ConcurrentHashMap<>()).put(target.path(), tile);
+        }
+    }
+
+    /**
+     * A new file to spill a tile of {@code namespace} to, in the namespace's temporary directory.
+     */
+    private Path spillFile(final String namespace) throws IOException
+    {
+        Path directory = spillDirectories.get(namespace);
+        if (directory == null)
+        {
+            directory = Files.createTempDirectory("atlas-" + namespace + "-");
+            final Path existing = spillDirectories.putIfAbsent(namespace, directory);
+            if (existing != null)
+            {
+                Files.delete(directory);
+                directory = existing;
+            }
+        }
+        return directory.resolve(spilledTiles.incrementAndGet() + "." + ImageFormat.QOI.getExtension());
+    }
+
+    /**
+     * Deletes a namespace's temporary directory along with its tile files.
+     */
+    private static void deleteSpillDirectory(final Path directory)
+    {
+        try
+        {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory))
+            {
+                for (final Path file : stream)
+                {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Could not delete temporary atlas tiles in {}", directory, e);
+        }
+    }
+
+    /**
+     * In atlas mode, writes the atlas of every namespace that received images during the pass, one namespace per
+     * worker. Does nothing otherwise.
+     */
+    CompletableFuture<Void> writeAtlases(final DataGeneratorOptions<?> options)
+    {
+        if (atlasSize == 0 || tiles.isEmpty())
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final Path outputPath = options.getOutputPath();
+        final Path atlasPath = outputPath.resolveSibling(outputPath.getFileName() + "_atlas");
+        final List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (final String namespace : List.copyOf(tiles.keySet()))
+        {
+            final Map<String, Tile> images = new TreeMap<>(tiles.remove(namespace));
+            final Path spillDirectory = spillDirectories.get(namespace);
+            writes.add(DataGenerator.runAsync(() -> {
+                try
+                {
+                    writeAtlas(atlasPath.resolve(namespace), namespace, images, spillDirectory, options.getGson());
+                }
+                finally
+                {
+                    spillDirectories.remove(namespace, spillDirectory);
+                    deleteSpillDirectory(spillDirectory);
+                }
+            }));
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Packs {@code images}, plus those carried over from the previous atlas, and writes the sheets one at a time, then
+     * the map, then deletes the sheets of the previous atlas that are no longer used.
+     *
+     * @param images         the rendered images by target path, in name order so the same images always give the same
+     *                       sheets
+     * @param spillDirectory the temporary directory of the namespace, to spill carried over images to as well
+     */
+    private void writeAtlas(
+        final Path directory,
+        final String namespace,
+        final Map<String, Tile> images,
+        final Path spillDirectory,
+        final Gson gson) throws IOException
+    {
+        final JsonObject previous = readMap(directory);
+        final Set<String> previousSheets = new HashSet<>();
+        if (previous != null)
+        {
+            previous.getAsJsonArray("sheets").forEach(sheet -> previousSheets.add(stem(sheet.getAsString())));
+            carryOver(directory, namespace, previous, images, spillDirectory);
+        }
+
+        final List<String> packed = new ArrayList<>();
+        images.forEach((name, tile) -> {
+            if (tile.width() > 0)
+            {
+                packed.add(name);
+            }
+        });
+        final int[] widths = packed.stream().mapToInt(name -> images.get(name).width()).toArray();
+        final int[] heights = packed.stream().mapToInt(name -> images.get(name).height()).toArray();
+        final ShelfPacker.Placement[] placements = new ShelfPacker(atlasSize, atlasSize, PADDING).pack(widths, heights);
+
+        // Sheets are assembled one at a time, a namespace can fill more of them than fit in memory together
+        final List<List<Integer>> sheetContents = new ArrayList<>();
+        for (int i = 0; i < placements.length; i++)
+        {
+            while (sheetContents.size() <= placements[i].sheet())
+            {
+                sheetContents.add(new ArrayList<>());
+            }
+            sheetContents.get(placements[i].sheet()).add(i);
+        }
+
+        Files.createDirectories(directory);
+        final JsonArray sheetNames = new JsonArray();
+        for (int sheet = 0; sheet < sheetContents.size(); sheet++)
+        {
+            final RgbaImage sheetImage = new RgbaImage(atlasSize, atlasSize);
+            for (final int index : sheetContents.get(sheet))
+            {
+                ImageKernels.copyInto(images.get(packed.get(index)).decode(), sheetImage, placements[index].x(), placements[index].y());
+            }
+            final String stem = SHEET_PREFIX + sheet;
+            Files.write(directory.resolve(stem + "." + encoder.getExtension()), encoder.encode(sheetImage));
+            sheetNames.add(stem + "." + ImageFormat.PNG.getExtension());
+            previousSheets.remove(stem);
+        }
+
+        // The packed images are the non-empty ones in the same order, so their placements follow along
+        final JsonObject entries = new JsonObject();
+        int next = 0;
+        for (final Map.Entry<String, Tile> image : images.entrySet())
+        {
+            final Tile tile = image.getValue();
+            final JsonObject entry = new JsonObject();
+            if (tile.width() > 0)
+            {
+                final ShelfPacker.Placement placement = placements[next++];
+                entry.addProperty("sheet", placement.sheet());
+                entry.addProperty("x", placement.x());
+                entry.addProperty("y", placement.y());
+            }
+            entry.addProperty("width", tile.width());
+            entry.addProperty("height", tile.height());
+            entry.addProperty("offsetX", tile.offsetX());
+            entry.addProperty("offsetY", tile.offsetY());
+            entries.add(image.getKey(), entry);
+        }
+
+        final JsonObject map = new JsonObject();
+        map.addProperty("sheetWidth", atlasSize);
+        map.addProperty("sheetHeight", atlasSize);
+        map.addProperty("imageWidth", imageSize);
+        map.addProperty("imageHeight", imageSize);
+        map.add("sheets", sheetNames);
+        map.add("images", entries);
+        Files.writeString(directory.resolve(MAP_FILE), gson.toJson(map), StandardCharsets.UTF_8);
+
+        for (final String stem : previousSheets)
+        {
+            for (final ImageFormat format : ImageFormat.values())
+            {
+                Files.deleteIfExists(directory.resolve(stem + "." + format.getExtension()));
+            }
+        }
+        LOGGER.info("Wrote atlas of {} images on {} sheets to {}", images.size(), sheetContents.size(), directory);
+    }
+
+    /**
+     * Adds the images of the previous atlas that the pass did not render and whose targets still exist, reading each
+     * previous sheet only once and spilling the images like rendered ones.
+     */
+    private void carryOver(
+        final Path directory,
+        final String namespace,
+        final JsonObject previous,
+        final Map<String, Tile> images,
+        final Path spillDirectory) throws IOException
+    {
+        final JsonArray sheetNames = previous.getAsJsonArray("sheets");
+        final Map<Integer, List<Map.Entry<String, JsonElement>>> bySheet = new TreeMap<>();
+        for (final Map.Entry<String, JsonElement> entry : previous.getAsJsonObject("images").entrySet())
+        {
+            if (images.containsKey(entry.getKey()) || !isKept(namespace, entry.getKey()))
+            {
+                continue;
+            }
+            final JsonObject image = entry.getValue().getAsJsonObject();
+            if (image.get("width").getAsInt() == 0)
+            {
+                images.put(entry.getKey(), Tile.EMPTY);
+                continue;
+            }
+            bySheet.computeIfAbsent(image.get("sheet").getAsInt(), sheet -> new ArrayList<>()).add(entry);
+        }
+
+        for (final Map.Entry<Integer, List<Map.Entry<String, JsonElement>>> sheet : bySheet.entrySet())
+        {
+            final String stem = stem(sheetNames.get(sheet.getKey()).getAsString());
+            final RgbaImage sheetImage = readSheet(directory, stem);
+            if (sheetImage == null)
+            {
+                LOGGER.warn("Could not read atlas sheet {} in {}, dropping its {} images until they are rendered again",
+                    stem, directory, sheet.getValue().size());
+                continue;
+            }
+            for (final Map.Entry<String, JsonElement> entry : sheet.getValue())
+            {
+                final JsonObject image = entry.getValue().getAsJsonObject();
+                final RgbaImage region = ImageKernels.copyRegion(sheetImage,
+                    image.get("x").getAsInt(),
+                    image.get("y").getAsInt(),
+                    image.get("width").getAsInt(),
+                    image.get("height").getAsInt());
+                images.put(entry.getKey(), Tile.of(region,
+                    image.get("offsetX").getAsInt(),
+                    image.get("offsetY").getAsInt(),
+                    spillDirectory.resolve(spilledTiles.incrementAndGet() + "." + ImageFormat.QOI.getExtension())));
+            }
+        }
+    }
+
+    /**
+     * Whether an image of the previous atlas is kept: its target was listed, or the run filtered it out.
+     */
+    private boolean isKept(final String namespace, final String path)
+    {
+        final TargetContext<?> listedContext = context;
+        return listedContext != null && (listedContext.indexOf(namespace, path) >= 0 || !listedContext.getFilter().includes(namespace, path));
+    }
+
+    private static JsonObject readMap(final Path directory)
+    {
+        final Path mapFile = directory.resolve(MAP_FILE);
+        if (!Files.isRegularFile(mapFile))
+        {
+            return null;
+        }
+        try
+        {
+            final JsonObject map = JsonParser.parseString(Files.readString(mapFile, StandardCharsets.UTF_8)).getAsJsonObject();
+            return map.has("sheets") && map.has("images") ? map : null;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOGGER.warn("Ignoring unreadable atlas map {}", mapFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the sheet with the given file name stem in whichever format it was written, or returns {@code null}.
+     */
+    private static RgbaImage readSheet(final Path directory, final String stem)
+    {
+        for (final ImageFormat format : ImageFormat.values())
+        {
+            final Path file = directory.resolve(stem + "." + format.getExtension());
+            if (Files.isRegularFile(file))
+            {
+                try
+                {
+                    return format.decode(Files.readAllBytes(file));
+                }
+                catch (IOException | IllegalArgumentException e)
+                {
+                    LOGGER.warn("Could not read atlas sheet {}", file, e);
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String stem(final String fileName)
+    {
+        final int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? fileName : fileName.substring(0, dot);
+    }
+
+    /**
+     * An image trimmed to its content, spilled to a QOI file until it is packed. Empty images have a size of zero and
+     * no file.
+     *
+     * @param offsetX the column of the trimmed image within the original one
+     * @param offsetY the row of the trimmed image within the original one
+     * @param file    the file holding the trimmed image, or {@code null} when it was not kept
+     */
+    private record Tile(
+        int offsetX,
+        int offsetY,
+        int width,
+        int height,
+        Path file)
+    {
+        static final Tile EMPTY = new Tile(0, 0, 0, 0, null);
+
+        /**
+         * Trims and encodes {@code image}, writing it to {@code file} unless that is {@code null}.
+         */
+        static Tile of(final RgbaImage image, final Path file) throws IOException
+        {
+            final ContentBounds bounds = ImageKernels.findContentBounds(image);
+            if (bounds == null)
+            {
+                return EMPTY;
+            }
+            final int width = bounds.maxX() - bounds.minX() + 1;
+            final int height = bounds.maxY() - bounds.minY() + 1;
+            return of(ImageKernels.copyRegion(image, bounds.minX(), bounds.minY(), width, height), bounds.minX(), bounds.minY(), file);
+        }
+
+        static Tile of(final RgbaImage trimmed, final int offsetX, final int offsetY, final Path file) throws IOException
+        {
+            final byte[] data = TILE_ENCODER.encode(trimmed);
+            if (file != null)
+            {
+                Files.write(file, data);
+            }
+            return new Tile(offsetX, offsetY, trimmed.getWidth(), trimmed.getHeight(), file);
+        }
+
+        RgbaImage decode() throws IOException
+        {
+            return ImageFormat.QOI.decode(Files.readAllBytes(file));
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes stale files from a generator output folder, i.e. files that belong to none of the generator's targets.
+ *
+ * <p>The target set is compiled once into a trie of directory segments, each directory holding an
+ * open-addressing table of file stems. Files are matched by hashing the stem straight out of the path
+ * string, so checking a file allocates nothing beyond what the directory walk itself produces. Every
+ * directory is listed by its own fork-join task on the worker pool, so the walk spreads over all workers even
+ * when a single namespace holds almost all output. Directories that are left empty and contain no targets
+ * are removed in the same pass, once all their subdirectories are done.
+ *
+ * <p>Files excluded by the run's {@link TargetFilter} are never deleted, since the generator did not list
+ * those targets in this run.
+ */
+final class OutputCleaner
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final Path         outputPath;
+    private final Node         root;
+    private final TargetFilter filter;
+    private final char         separator;
+
+    private final AtomicInteger deletedFiles       = new AtomicInteger();
+    private final AtomicInteger deletedDirectories = new AtomicInteger();
+
+    OutputCleaner(final Path outputPath, final TargetStore targets, final TargetFilter filter)
+    {
+        this.outputPath = outputPath;
+        this.root = Node.build(targets);
+        this.filter = filter;
+        this.separator = outputPath.getFileSystem().getSeparator().charAt(0);
+    }
+
+    /**
+     * Deletes all stale files and emptied directories below the output folder.
+     *
+     * @return the number of deleted files
+     */
+    int clean() throws IOException
+    {
+        if (!Files.isDirectory(outputPath))
+        {
+            return 0;
+        }
+
+        final List<DirectoryTask> namespaceTasks = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(outputPath))
+        {
+            for (final Path entry : stream)
+            {
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS))
+                {
+                    final String namespace = entry.getFileName().toString();
+                    if (filter.includesNamespace(namespace))
+                    {
+                        namespaceTasks.add(new DirectoryTask(entry, root.child(namespace)));
+                    }
+                }
+                else if (!root.containsStem(entry.toString(), separator))
+                {
+                    deleteIfStale(entry);
+                }
+            }
+        }
+
+        DataGenerator.WORKERS.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(namespaceTasks)));
+
+        LOGGER.debug("Cleaned {}: {} files and {} directories deleted", outputPath, deletedFiles.get(), deletedDirectories.get());
+        return deletedFiles.get();
+    }
+
+    /**
+     * Deletes {@code file} unless the filter excludes its target.
+     *
+     * @return whether the file was deleted
+     */
+    private boolean deleteIfStale(final Path file)
+    {
+        if (filter.filtersTargets() && !filter.includes(GeneratorTarget.fromFile(outputPath, file)))
+        {
+            return false;
+        }
+
+        try
+        {
+            Files.deleteIfExists(file);
+            deletedFiles.incrementAndGet();
+            return true;
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Could not delete stale file {}", file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Cleans a single directory: deletes its stale files, forks a task for each subdirectory, and deletes the
+     * directory itself if nothing is left in it and it holds no targets.
+     */
+    private final class DirectoryTask extends RecursiveTask<Boolean>
+    {
+        private final Path directory;
+
+        /**
+         * The trie node of the directory, or {@code null} if no target lies below it.
+         */
+        private final Node node;
+
+        private DirectoryTask(final Path directory, final Node node)
+        {
+            this.directory = directory;
+            this.node = node;
+        }
+
+        /**
+         * @return whether the directory was deleted
+         */
+        @Override
+        protected Boolean compute()
+        {
+            int kept = 0;
+            final List<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory))
+            {
+                for (final Path entry : stream)
+                {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS))
+                    {
+                        subdirectories.add(new DirectoryTask(entry, node == null ? null : node.child(entry.getFileName().toString())));
+                    }
+                    else if ((node != null && node.containsStem(entry.toString(), separator)) || !deleteIfStale(entry))
+                    {
+                        kept++;
+                    }
+                }
+            }
+            catch (IOException | DirectoryIteratorException e)
+            {
+                LOGGER.warn("Could not visit {}", directory, e);
+                kept++;
+            }
+
+            for (final DirectoryTask subdirectory : invokeAll(subdirectories))
+            {
+                if (!subdirectory.join())
+                {
+                    kept++;
+                }
+            }
+
+            // Directories that contain targets are kept even when empty, generation may be writing into them right now
+            if (kept > 0 || node != null)
+            {
+                return false;
+            }
+            try
+            {
+                Files.delete(directory);
+                deletedDirectories.incrementAndGet();
+                return true;
+            }
+            catch (IOException e)
+            {
+                LOGGER.warn("Could not delete empty directory {}", directory, e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A directory in the target trie: its subdirectories and the stems of the target files directly inside it.
+     */
+    private static final class Node
+    {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<String>      stemList = new ArrayList<>();
+
+        private String[] stems = new String[0];
+        private int      mask  = -1;
+
+        static Node build(final TargetStore targets)
+        {
+            final Node root = new Node();
+            for (int i = 0; i < targets.size(); i++)
+            {
+                final String namespace = targets.namespace(i);
+                Node node = namespace.isEmpty() ? root : root.children.computeIfAbsent(namespace, k -> new Node());
+                final String path = targets.path(i);
+                int start = 0;
+                int slash;
+                while ((slash = path.indexOf('/', start)) >= 0)
+                {
+                    node = node.children.computeIfAbsent(path.substring(start, slash), k -> new Node());
+                    start = slash + 1;
+                }
+                node.stemList.add(path.substring(start));
+            }
+            root.freeze();
+            return root;
+        }
+
+        private void freeze()
+        {
+            if (!stemList.isEmpty())
+            {
+                // Keep the table at most half full so probe sequences stay short
+                final int capacity = Integer.highestOneBit(Math.max(1, stemList.size()) * 2 - 1) << 1;
+                stems = new String[capacity];
+                mask = capacity - 1;
+                for (final String stem : stemList)
+                {
+                    int slot = spread(stem.hashCode()) & mask;
+                    while (stems[slot] != null && !stems[slot].equals(stem))
+                    {
+                        slot = (slot + 1) & mask;
+                    }
+                    stems[slot] = stem;
+                }
+                stemList.clear();
+            }
+            children.values().forEach(Node::freeze);
+        }
+
+        Node child(final String name)
+        {
+            return children.get(name);
+        }
+
+        /**
+         * Whether the file name at the end of {@code filePath}, without its extension, is a target stem of this directory.
+         */
+        boolean containsStem(final String filePath, final char separator)
+        {
+            if (mask < 0)
+            {
+                return false;
+            }
+
+            final int start = filePath.lastIndexOf(separator) + 1;
+            final int dot = filePath.lastIndexOf('.');
+            final int end = dot >= start ? dot : filePath.length();
+            final int length = end - start;
+
+            // Same hash as String#hashCode, computed over the stem without extracting it
+            int hash = 0;
+            for (int i = start; i < end; i++)
+            {
+                hash = 31 * hash + filePath.charAt(i);
+            }
+
+            int slot = spread(hash) & mask;
+            String stem;
+            while ((stem = stems[slot]) != null)
+            {
+                if (stem.length() == length && stem.regionMatches(0, filePath, start, length))
+                {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private static int spread(final int hash)
+        {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,490 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Render benchmark mode: repeatedly renders a fixed, seeded sample of targets of every batched generator and
+ * reports throughput and timings, discarding all output.
+ *
+ * <p>Enabled by setting {@code RENDER_BENCHMARK} to {@code true}, and configured through:
+ * <ul>
+ *     <li>{@code RENDER_BENCHMARK_SAMPLE} — targets sampled per generator, default {@value #DEFAULT_SAMPLE}</li>
+ *     <li>{@code RENDER_BENCHMARK_WARMUP} — unmeasured passes over the sample, default {@value #DEFAULT_WARMUP}</li>
+ *     <li>{@code RENDER_BENCHMARK_ITERATIONS} — measured passes over the sample, default {@value #DEFAULT_ITERATIONS}</li>
+ *     <li>{@code RENDER_BENCHMARK_SEED} — seed for drawing the sample, default {@value #DEFAULT_SEED}</li>
+ * </ul>
+ * The sample is drawn from the filtered targets sorted by name, so the same seed picks the same targets as long
+ * as the target set does not change. Generators run one after another, each for its configured batch size per
+ * tick, so the frame-time numbers show what a normal run adds to every frame. Frames ticked while no generator
+ * is active, e.g. during target discovery, serve as the baseline.
+ *
+ * <p>Results are written to {@code render-benchmark.json} in the output root. No generator output is written and
+ * no stale files are cleaned up.
+ *
+ * @param <L> the level type passed through to generators and their options
+ */
+final class RenderBenchmark<L>
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ENV_RENDER_BENCHMARK = "RENDER_BENCHMARK";
+    private static final String ENV_SAMPLE           = "RENDER_BENCHMARK_SAMPLE";
+    private static final String ENV_WARMUP           = "RENDER_BENCHMARK_WARMUP";
+    private static final String ENV_ITERATIONS       = "RENDER_BENCHMARK_ITERATIONS";
+    private static final String ENV_SEED             = "RENDER_BENCHMARK_SEED";
+
+    private static final int  DEFAULT_SAMPLE     = 50;
+    private static final int  DEFAULT_WARMUP     = 1;
+    private static final int  DEFAULT_ITERATIONS = 3;
+    private static final long DEFAULT_SEED       = 0;
+
+    private static final String RESULT_FILE = "render-benchmark.json";
+
+    private final int  sampleSize;
+    private final int  warmupPasses;
+    private final int  iterations;
+    private final long seed;
+
+    private final Queue<Run<L>> discoveredRuns = new ConcurrentLinkedQueue<>();
+    private final Deque<Run<L>> runs           = new ArrayDeque<>();
+    private final List<Run<L>>  finishedRuns   = new ArrayList<>();
+    private final LongSeries    idleFrames     = new LongSeries();
+
+    private CompletableFuture<Void> discoveryFuture;
+    private long                    lastTickNanos;
+
+    private RenderBenchmark(final int sampleSize, final int warmupPasses, final int iterations, final long seed)
+    {
+        this.sampleSize = sampleSize;
+        this.warmupPasses = warmupPasses;
+        this.iterations = iterations;
+        this.seed = seed;
+    }
+
+    /**
+     * Reads the benchmark configuration from the environment variables described in the class documentation.
+     *
+     * @return the benchmark, or {@code null} when render benchmark mode is not enabled
+     */
+    static <L> RenderBenchmark<L> fromEnvironment()
+    {
+        if (!Boolean.parseBoolean(System.getenv(ENV_RENDER_BENCHMARK)))
+        {
+            return null;
+        }
+        return new RenderBenchmark<>(Math.max(1, (int) readLong(ENV_SAMPLE, DEFAULT_SAMPLE)),
+            Math.max(0, (int) readLong(ENV_WARMUP, DEFAULT_WARMUP)),
+            Math.max(1, (int) readLong(ENV_ITERATIONS, DEFAULT_ITERATIONS)),
+            readLong(ENV_SEED, DEFAULT_SEED));
+    }
+
+    /**
+     * Discovers and samples the targets of every batched generator on worker threads. Generators that run
+     * asynchronously are skipped, since they do not render.
+     */
+    void start(final List<DataGenerator<L>> generators, final L level, final TargetFilter filter, final Path rootPath, final Gson gson)
+    {
+        LOGGER.info("Render benchmark: sampling {} targets per generator, {} warmup and {} measured passes, seed {}", sampleSize, warmupPasses, iterations, seed);
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (final DataGenerator<L> generator : generators)
+        {
+            final Integer batchSize = generator.batchSize();
+            if (batchSize == null)
+            {
+                LOGGER.info("Render benchmark: skipping {}, it does not render on the render thread", generator.getName());
+                continue;
+            }
+
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                final TargetContext<L> context = new TargetContext<>(level, filter);
+                generator.listTargets(context);
+                return context.getTargets();
+            }, DataGenerator.WORKERS).thenAccept(store -> {
+                final int[] sample = sample(generator, store, store.select(filter));
+                LOGGER.info("Render benchmark: {} sampled {}/{} targets", generator.getName(), sample.length, store.size());
+                discoveredRuns.add(new Run<>(generator, store, sample, rootPath, gson, level, batchSize, warmupPasses, iterations));
+            }).exceptionally(throwable -> {
+                LOGGER.error("Render benchmark: could not list targets of {}", generator.getName(), throwable);
+                return null;
+            }));
+        }
+        discoveryFuture = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Advances the active generator by one batch.
+     *
+     * @return whether all generators have finished
+     */
+    boolean tick()
+    {
+        final long now = System.nanoTime();
+        final long frameNanos = lastTickNanos == 0 ? -1 : now - lastTickNanos;
+        lastTickNanos = now;
+
+        Run<L> discovered;
+        while ((discovered = discoveredRuns.poll()) != null)
+        {
+            runs.add(discovered);
+        }
+
+        if (runs.isEmpty())
+        {
+            if (frameNanos >= 0)
+            {
+                idleFrames.add(frameNanos);
+            }
+            return discoveryFuture != null && discoveryFuture.isDone() && discoveredRuns.isEmpty();
+        }
+
+        final Run<L> active = runs.getFirst();
+        if (active.isDone())
+        {
+            if (active.finish())
+            {
+                LOGGER.info("Render benchmark: {} finished", active.generator.getName());
+                finishedRuns.add(runs.pop());
+            }
+        }
+        else
+        {
+            active.processBatch(frameNanos);
+        }
+        return false;
+    }
+
+    /**
+     * Writes the results of all finished generators to the output root.
+     */
+    void writeResults(final Path rootPath, final Gson gson)
+    {
+        final JsonObject json = new JsonObject();
+        json.addProperty("sampleSize", sampleSize);
+        json.addProperty("warmupPasses", warmupPasses);
+        json.addProperty("iterations", iterations);
+        json.addProperty("seed", seed);
+        json.add("idleFrameMillis", idleFrames.toJson());
+
+        final double idleFrameMillis = idleFrames.meanMillis();
+        final JsonArray generatorsJson = new JsonArray();
+        for (final Run<L> run : finishedRuns)
+        {
+            final JsonObject runJson = run.toJson();
+            if (run.frames.size() > 0 && idleFrames.size() > 0)
+            {
+                runJson.addProperty("frameTimeImpactMillis", run.frames.meanMillis() - idleFrameMillis);
+            }
+            generatorsJson.add(runJson);
+            LOGGER.info("Render benchmark: {}", runJson);
+        }
+        json.add("generators", generatorsJson);
+
+        final Path resultPath = rootPath.resolve(RESULT_FILE);
+        try
+        {
+            Files.createDirectories(rootPath);
+            Files.writeString(resultPath, gson.toJson(json), StandardCharsets.UTF_8);
+            LOGGER.info("Render benchmark results written to {}", resultPath);
+        }
+        catch (IOException e)
+        {
+            LOGGER.error("Could not write render benchmark results to {}", resultPath, e);
+        }
+    }
+
+    /**
+     * Draws up to {@code sampleSize} of {@code targets}, considering only targets the generator works on itself.
+     */
+    private int[] sample(final DataGenerator<L> generator, final TargetStore store, final int[] targets)
+    {
+        final List<Integer> candidates = new ArrayList<>();
+        for (final int target : targets)
+        {
+            if (generator.isStandaloneTarget(store.get(target)))
+            {
+                candidates.add(target);
+            }
+        }
+        candidates.sort(Comparator.comparing((Integer index) -> store.namespace(index)).thenComparing(store::path));
+        Collections.shuffle(candidates, new Random(seed));
+        return candidates.stream().limit(sampleSize).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static long readLong(final String variable, final long defaultValue)
+    {
+        final String value = System.getenv(variable);
+        if (value == null || value.isBlank())
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", value, variable, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * The benchmark of a single generator. Driven on the render thread, but targets may complete and record their
+     * later stages on workers, so the counters those touch are atomic. Warmup targets are generated with a timer
+     * that records nothing, so stages finishing late cannot leak into the measured passes.
+     */
+    private static final class Run<L> implements StageTimer
+    {
+        private final DataGenerator<L>        generator;
+        private final TargetStore             store;
+        private final int[]                   sample;
+        private final DataGeneratorOptions<L> options;
+        private final DataGeneratorOptions<L> warmupOptions;
+        private final int                     batchSize;
+        private final int                     warmupTargets;
+        private final int                     totalTargets;
+
+        private final AtomicLongArray    stageNanos          = new AtomicLongArray(RenderStage.values().length);
+        private final AtomicIntegerArray stageCounts         = new AtomicIntegerArray(RenderStage.values().length);
+        private final AtomicInteger      rendered            = new AtomicInteger();
+        private final AtomicInteger      failed              = new AtomicInteger();
+        private final AtomicLong         lastCompletionNanos = new AtomicLong();
+        private final LongSeries         tickWork            = new LongSeries();
+        private final LongSeries         frames              = new LongSeries();
+
+        /**
+         * Targets handed to the generator that have not completed yet.
+         */
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        private int                     next;
+        private boolean                 previousBatchMeasured;
+        private long                    measureStartNanos;
+        private long                    measureEndNanos;
+        private CompletableFuture<Void> completion;
+
+        Run(
+            final DataGenerator<L> generator,
+            final TargetStore store,
+            final int[] sample,
+            final Path rootPath,
+            final Gson gson,
+            final L level,
+            final int batchSize,
+            final int warmupPasses,
+            final int iterations)
+        {
+            this.generator = generator;
+            this.store = store;
+            this.sample = sample;
+            this.options = new DataGeneratorOptions<>(generator.getGeneratorOutputPath(rootPath), gson, level, true, this);
+            this.warmupOptions = new DataGeneratorOptions<>(generator.getGeneratorOutputPath(rootPath), gson, level, true, StageTimer.NONE);
+            this.batchSize = batchSize;
+            this.warmupTargets = sample.length * warmupPasses;
+            this.totalTargets = warmupTargets + sample.length * iterations;
+        }
+
+        boolean isDone()
+        {
+            return next >= totalTargets;
+        }
+
+        /**
+         * Lets the generator finish the work it deferred once every pass has been handed out. Called every tick until
+         * it returns {@code true}.
+         *
+         * @return whether every target has completed, so the results are final
+         */
+        boolean finish()
+        {
+            if (completion == null)
+            {
+                generator.onBatchesDrained();
+                completion = CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+            }
+            return completion.isDone();
+        }
+
+        void processBatch(final long frameNanos)
+        {
+            // The frame that just ended ran the previous batch, so it only counts if that batch was measured throughout
+            if (previousBatchMeasured && frameNanos >= 0)
+            {
+                frames.add(frameNanos);
+            }
+
+            pending.removeIf(CompletableFuture::isDone);
+            final boolean batchMeasured = next >= warmupTargets;
+            long measuredStart = -1;
+            for (int i = 0; i < batchSize && !isDone(); i++)
+            {
+                final boolean measuring = next >= warmupTargets;
+                if (measuring && measuredStart < 0)
+                {
+                    measuredStart = System.nanoTime();
+                    if (measureStartNanos == 0)
+                    {
+                        measureStartNanos = measuredStart;
+                    }
+                }
+
+                final GeneratorTarget target = store.get(sample[next++ % sample.length]);
+                CompletableFuture<Void> future;
+                try
+                {
+                    future = generator.generate(target, measuring ? options : warmupOptions);
+                }
+                catch (Exception e)
+                {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                // Generators may complete a target during a later batch, once drained, or on a worker
+                pending.add(future.whenComplete((result, throwable) -> {
+                    if (throwable != null)
+                    {
+                        LOGGER.error("Render benchmark: {} failed for target '{}'", generator.getName(), target, throwable);
+                    }
+                    if (measuring)
+                    {
+                        (throwable != null ? failed : rendered).incrementAndGet();
+                        lastCompletionNanos.accumulateAndGet(System.nanoTime(), Math::max);
+                    }
+                }));
+            }
+            final long end = System.nanoTime();
+
+            if (measuredStart >= 0)
+            {
+                tickWork.add(end - measuredStart);
+                measureEndNanos = end;
+            }
+            previousBatchMeasured = batchMeasured;
+        }
+
+        @Override
+        public long record(final RenderStage stage, final long startNanos)
+        {
+            final long now = System.nanoTime();
+            stageNanos.addAndGet(stage.ordinal(), now - startNanos);
+            stageCounts.incrementAndGet(stage.ordinal());
+            return now;
+        }
+
+        JsonObject toJson()
+        {
+            // Measured targets may still have been encoding on a worker after the last measured batch
+            final long wallNanos = Math.max(measureEndNanos, lastCompletionNanos.get()) - measureStartNanos;
+            final long workNanos = tickWork.sum();
+            final int rendered = this.rendered.get();
+            final int images = stageCounts.get(RenderStage.ENCODE.ordinal());
+
+            final JsonObject json = new JsonObject();
+            json.addProperty("name", generator.getName());
+            json.addProperty("sampled", sample.length);
+            json.addProperty("rendered", rendered);
+            json.addProperty("failed", failed.get());
+            json.addProperty("images", images);
+            json.addProperty("wallMillis", nanosToMillis(wallNanos));
+            json.addProperty("targetsPerSecond", perSecond(rendered, wallNanos));
+            json.addProperty("imagesPerSecond", perSecond(images, wallNanos));
+            // Throughput if the render thread did nothing but generate, i.e. without the rest of the frame
+            json.addProperty("renderThreadTargetsPerSecond", perSecond(rendered, workNanos));
+
+            final JsonObject stages = new JsonObject();
+            for (final RenderStage stage : RenderStage.values())
+            {
+                final JsonObject stageJson = new JsonObject();
+                final long nanos = stageNanos.get(stage.ordinal());
+                final int count = stageCounts.get(stage.ordinal());
+                stageJson.addProperty("totalMillis", nanosToMillis(nanos));
+                stageJson.addProperty("meanMillis", count == 0 ? 0 : nanosToMillis(nanos) / count);
+                stageJson.addProperty("count", count);
+                stages.add(stage.getKey(), stageJson);
+            }
+            json.add("stages", stages);
+            json.add("tickWorkMillis", tickWork.toJson());
+            json.add("frameMillis", frames.toJson());
+            return json;
+        }
+
+        private static double perSecond(final int count, final long nanos)
+        {
+            return nanos <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+    }
+
+    private static double nanosToMillis(final long nanos)
+    {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * A growable list of durations in nanoseconds, summarised as mean and percentiles.
+     */
+    private static final class LongSeries
+    {
+        private long[] values = new long[64];
+        private int    size;
+
+        void add(final long value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        long sum()
+        {
+            long sum = 0;
+            for (int i = 0; i < size; i++)
+            {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        double meanMillis()
+        {
+            return size == 0 ? 0 : nanosToMillis(sum()) / size;
+        }
+
+        JsonObject toJson()
+        {
+            final long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+
+            final JsonObject json = new JsonObject();
+            json.addProperty("count", size);
+            json.addProperty("mean", meanMillis());
+            json.addProperty("p50", size == 0 ? 0 : nanosToMillis(sorted[(size - 1) / 2]));
+            json.addProperty("p95", size == 0 ? 0 : nanosToMillis(sorted[(int) Math.ceil(size * 0.95) - 1]));
+            json.addProperty("max", size == 0 ? 0 : nanosToMillis(sorted[size - 1]));
+            return json;
+        }
+    }
+}
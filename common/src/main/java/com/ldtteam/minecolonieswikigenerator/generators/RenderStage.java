@@ -0,0 +1,39 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+/**
+ * The steps an image generator goes through for every image, timed separately in render benchmark mode.
+ */
+public enum RenderStage
+{
+    /**
+     * Setting up the framebuffer and issuing the draw calls.
+     */
+    RENDER("render"),
+    /**
+     * Reading the framebuffer back into memory, including waiting for the GPU to finish drawing.
+     */
+    READBACK("readback"),
+    /**
+     * Cropping, scaling and other pixel work on the read-back image.
+     */
+    POST_PROCESS("postProcess"),
+    /**
+     * Encoding the final image into its file format.
+     */
+    ENCODE("encode");
+
+    private final String key;
+
+    RenderStage(final String key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * The name used for this stage in benchmark results.
+     */
+    public String getKey()
+    {
+        return key;
+    }
+}
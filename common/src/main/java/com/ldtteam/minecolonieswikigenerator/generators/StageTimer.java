@@ -0,0 +1,33 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+/**
+ * Collects how long image generators spend in each {@link RenderStage}, obtained through
+ * {@link DataGeneratorOptions#getStageTimer()}.
+ *
+ * <p>Stages are recorded back to back without allocating, by handing the returned timestamp to the next call:
+ * <pre>{@code
+ * long time = System.nanoTime();
+ * render();
+ * time = timer.record(RenderStage.RENDER, time);
+ * readBack();
+ * time = timer.record(RenderStage.READBACK, time);
+ * }</pre>
+ * Outside render benchmark mode the timer records nothing.
+ */
+@FunctionalInterface
+public interface StageTimer
+{
+    /**
+     * A timer that records nothing.
+     */
+    StageTimer NONE = (stage, startNanos) -> System.nanoTime();
+
+    /**
+     * Records the time since {@code startNanos} against {@code stage}.
+     *
+     * @param stage      the stage that just finished
+     * @param startNanos the {@link System#nanoTime()} at which the stage started
+     * @return the current {@link System#nanoTime()}, i.e. the start of the next stage
+     */
+    long record(final RenderStage stage, final long startNanos);
+}
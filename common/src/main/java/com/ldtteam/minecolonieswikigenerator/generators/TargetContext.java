@@ -0,0 +1,139 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Context passed to {@link DataGenerator#listTargets} while target sets are being resolved.
+ *
+ * <p>Besides the level, it exposes the run's {@link TargetFilter} so generators can skip namespaces and
+ * entries that will never be produced instead of materialising them first. Generators that ignore the
+ * filter still work correctly, because the manager filters the listed targets again.
+ *
+ * <p>Targets are {@link #add added} straight into a compact {@link TargetStore}, so listing hundreds of
+ * thousands of targets creates no {@link GeneratorTarget} per entry. Each generator gets its own context;
+ * it is filled on the thread running {@link DataGenerator#listTargets} and only read afterwards.
+ *
+ * @param <L> the level type (e.g. {@code ClientLevel})
+ */
+public final class TargetContext<L>
+{
+    private final L level;
+
+    private final TargetFilter filter;
+
+    private final TargetStore targets = new TargetStore();
+
+    /**
+     * The namespaces and the number of targets the filter rejected while listing, so runs can report what they
+     * left out even though the rejected targets never reach the store.
+     */
+    private final Set<String> skippedNamespaces = new HashSet<>();
+    private int                skippedTargets;
+
+    TargetContext(final L level, final TargetFilter filter)
+    {
+        this.level = level;
+        this.filter = filter;
+    }
+
+    /**
+     * The current level, available for registry or world queries, or {@code null} when no selected generator
+     * {@link DataGenerator#requiresLevel() requires one}.
+     */
+    public L getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Whether any target in {@code namespace} can be produced in this run.
+     */
+    public boolean includesNamespace(final String namespace)
+    {
+        if (filter.includesNamespace(namespace))
+        {
+            return true;
+        }
+        skippedNamespaces.add(namespace);
+        return false;
+    }
+
+    /**
+     * Whether the target {@code namespace:path} will be produced in this run.
+     */
+    public boolean includes(final String namespace, final String path)
+    {
+        if (filter.includes(namespace, path))
+        {
+            return true;
+        }
+        skippedTargets++;
+        return false;
+    }
+
+    /**
+     * Lists the target {@code namespace:path}. Listing a target again returns its existing index.
+     *
+     * @return the index of the target, counting up from 0 in the order targets are first listed, so generators
+     *     can keep per-target state in a list instead of a map keyed by {@link GeneratorTarget}
+     */
+    public int add(final String namespace, final String path)
+    {
+        return targets.add(namespace, path);
+    }
+
+    /**
+     * The index {@link #add} returned for the target {@code namespace:path}, or {@code -1} if it was not listed.
+     */
+    public int indexOf(final String namespace, final String path)
+    {
+        return targets.indexOf(namespace, path);
+    }
+
+    /**
+     * The index {@link #add} returned for {@code target}, or {@code -1} if it was not listed.
+     */
+    public int indexOf(final GeneratorTarget target)
+    {
+        return targets.indexOf(target.namespace(), target.path());
+    }
+
+    /**
+     * The listed target at {@code index}, created on each call.
+     */
+    public GeneratorTarget get(final int index)
+    {
+        return targets.get(index);
+    }
+
+    TargetStore getTargets()
+    {
+        return targets;
+    }
+
+    /**
+     * The filter of this run, to check targets after listing without counting them as skipped.
+     */
+    TargetFilter getFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * The number of targets {@link #includes} rejected while listing.
+     */
+    int getSkippedTargets()
+    {
+        return skippedTargets;
+    }
+
+    /**
+     * The number of distinct namespaces {@link #includesNamespace} rejected while listing; their targets were
+     * never visited, so they are not part of {@link #getSkippedTargets()}.
+     */
+    int getSkippedNamespaces()
+    {
+        return skippedNamespaces.size();
+    }
+}
@@ -0,0 +1,224 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compiled include/exclude rules deciding which generators run and which targets they produce.
+ *
+ * <p>Rules are read once from environment variables, each holding a comma-separated list of entries:
+ * <ul>
+ *     <li>{@code INCLUDED_NAMESPACES} / {@code EXCLUDED_NAMESPACES} — matched against the target namespace</li>
+ *     <li>{@code INCLUDED_TARGETS} / {@code EXCLUDED_TARGETS} — matched against {@code namespace:path}</li>
+ *     <li>{@code INCLUDED_GENERATORS} / {@code EXCLUDED_GENERATORS} — matched case-insensitively against {@link DataGenerator#getName()}</li>
+ * </ul>
+ * An entry prefixed with {@code regex:} is a regular expression, an entry prefixed with {@code glob:} or containing
+ * {@code *} or {@code ?} is a glob ({@code *} stays within a path segment, {@code **} crosses segments), anything else
+ * must match exactly. An empty include list includes everything; excludes always win over includes.
+ *
+ * <p>Targets with an empty namespace (files written straight into the generator output folder) are not
+ * namespaced, so namespace rules never apply to them.
+ */
+public final class TargetFilter
+{
+    private static final String ENV_INCLUDED_NAMESPACES = "INCLUDED_NAMESPACES";
+    private static final String ENV_EXCLUDED_NAMESPACES = "EXCLUDED_NAMESPACES";
+    private static final String ENV_INCLUDED_TARGETS    = "INCLUDED_TARGETS";
+    private static final String ENV_EXCLUDED_TARGETS    = "EXCLUDED_TARGETS";
+    private static final String ENV_INCLUDED_GENERATORS = "INCLUDED_GENERATORS";
+    private static final String ENV_EXCLUDED_GENERATORS = "EXCLUDED_GENERATORS";
+
+    private static final String PREFIX_REGEX = "regex:";
+    private static final String PREFIX_GLOB  = "glob:";
+
+    /**
+     * A filter that includes every generator and target.
+     */
+    static final TargetFilter NONE = new TargetFilter(Rules.NONE, Rules.NONE, Rules.NONE);
+
+    private final Rules namespaces;
+    private final Rules targets;
+    private final Rules generators;
+
+    TargetFilter(final Rules namespaces, final Rules targets, final Rules generators)
+    {
+        this.namespaces = namespaces;
+        this.targets = targets;
+        this.generators = generators;
+    }
+
+    /**
+     * Compiles the filter from the environment variables described in the class documentation.
+     */
+    static TargetFilter fromEnvironment()
+    {
+        return new TargetFilter(Rules.compile(System.getenv(ENV_INCLUDED_NAMESPACES), System.getenv(ENV_EXCLUDED_NAMESPACES), 0),
+            Rules.compile(System.getenv(ENV_INCLUDED_TARGETS), System.getenv(ENV_EXCLUDED_TARGETS), 0),
+            Rules.compile(System.getenv(ENV_INCLUDED_GENERATORS), System.getenv(ENV_EXCLUDED_GENERATORS), Pattern.CASE_INSENSITIVE));
+    }
+
+    /**
+     * Whether any namespace or target rule is configured, i.e. whether target sets may be partial.
+     */
+    public boolean filtersTargets()
+    {
+        return !namespaces.isEmpty() || !targets.isEmpty();
+    }
+
+    /**
+     * Whether targets in {@code namespace} may be produced at all. Generators can use this to skip whole
+     * registry namespaces before walking their entries.
+     */
+    public boolean includesNamespace(final String namespace)
+    {
+        return namespace.isEmpty() || namespaces.matches(namespace);
+    }
+
+    /**
+     * Whether the target {@code namespace:path} should be produced.
+     */
+    public boolean includes(final String namespace, final String path)
+    {
+        return includesNamespace(namespace) && (targets.isEmpty() || targets.matches(namespace + ":" + path));
+    }
+
+    /**
+     * Whether {@code target} should be produced.
+     */
+    public boolean includes(final GeneratorTarget target)
+    {
+        return includes(target.namespace(), target.path());
+    }
+
+    /**
+     * Whether the given generator should run at all.
+     */
+    public boolean includesGenerator(final DataGenerator<?> generator)
+    {
+        return generators.matches(generator.getName());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "namespaces " + namespaces + ", targets " + targets + ", generators " + generators;
+    }
+
+    /**
+     * A compiled pair of include and exclude pattern lists.
+     */
+    record Rules(
+        List<Pattern> includes,
+        List<Pattern> excludes)
+    {
+        private static final Rules NONE = new Rules(List.of(), List.of());
+
+        private static Rules compile(final String includes, final String excludes, final int flags)
+        {
+            return new Rules(compilePatterns(includes, flags), compilePatterns(excludes, flags));
+        }
+
+        private static List<Pattern> compilePatterns(final String list, final int flags)
+        {
+            if (list == null || list.isBlank())
+            {
+                return List.of();
+            }
+            return Arrays.stream(list.split(",")).map(String::trim).filter(s -> !s.isEmpty()).map(entry -> compilePattern(entry, flags)).toList();
+        }
+
+        private static Pattern compilePattern(final String entry, final int flags)
+        {
+            if (entry.startsWith(PREFIX_REGEX))
+            {
+                return Pattern.compile(entry.substring(PREFIX_REGEX.length()), flags);
+            }
+            if (entry.startsWith(PREFIX_GLOB))
+            {
+                return Pattern.compile(globToRegex(entry.substring(PREFIX_GLOB.length())), flags);
+            }
+            if (entry.indexOf('*') >= 0 || entry.indexOf('?') >= 0)
+            {
+                return Pattern.compile(globToRegex(entry), flags);
+            }
+            return Pattern.compile(Pattern.quote(entry), flags);
+        }
+
+        private static String globToRegex(final String glob)
+        {
+            final StringBuilder regex = new StringBuilder();
+            final StringBuilder literal = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++)
+            {
+                final char c = glob.charAt(i);
+                if (c != '*' && c != '?')
+                {
+                    literal.append(c);
+                    continue;
+                }
+
+                if (!literal.isEmpty())
+                {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (c == '?')
+                {
+                    regex.append("[^/]");
+                }
+                else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*')
+                {
+                    regex.append(".*");
+                    i++;
+                }
+                else
+                {
+                    regex.append("[^/]*");
+                }
+            }
+            if (!literal.isEmpty())
+            {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return regex.toString();
+        }
+
+        boolean isEmpty()
+        {
+            return includes.isEmpty() && excludes.isEmpty();
+        }
+
+        boolean matches(final String value)
+        {
+            for (final Pattern exclude : excludes)
+            {
+                if (exclude.matcher(value).matches())
+                {
+                    return false;
+                }
+            }
+            if (includes.isEmpty())
+            {
+                return true;
+            }
+            for (final Pattern include : includes)
+            {
+                if (include.matcher(value).matches())
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString()
+        {
+            final Function<List<Pattern>, String> join = patterns -> patterns.stream().map(Pattern::pattern).collect(Collectors.joining(", ", "[", "]"));
+            return "(include " + join.apply(includes) + ", exclude " + join.apply(excludes) + ")";
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import java.util.*;
+
+/**
+ * Compact, deduplicated storage for a generator's target set.
+ *
+ * <p>Target sets for block states and images reach hundreds of thousands of entries. Instead of keeping a
+ * {@link GeneratorTarget} with two strings per entry, namespaces are interned to small ids and all paths are
+ * stored back to back in a single char arena. Membership checks go through a primitive open-addressing table
+ * of entry indices, so looking up a target hashes its characters once and compares them in place.
+ *
+ * <p>Entries are addressed by their index, in insertion order. {@link GeneratorTarget} instances are only
+ * created on demand through {@link #get(int)}, when a target is handed to {@link DataGenerator#generate}.
+ * Generators fill a store through {@link TargetContext#add} on a single thread, after which it is only read.
+ */
+final class TargetStore
+{
+    private static final int EMPTY = -1;
+
+    private final Map<String, Integer> namespaceIds = new HashMap<>();
+    private final List<String>         namespaces   = new ArrayList<>();
+
+    private char[] arena = new char[1024];
+    private int    arenaSize;
+
+    /**
+     * Entry {@code i} has its path stored in {@code arena[offsets[i], offsets[i + 1])}.
+     */
+    private int[] offsets     = new int[17];
+    private int[] namespaceOf = new int[16];
+    private int[] hashes      = new int[16];
+    private int   size;
+
+    private int[] table = newTable(32);
+
+    /**
+     * Builds a store holding every target of {@code targets}.
+     */
+    static TargetStore of(final Collection<GeneratorTarget> targets)
+    {
+        final TargetStore store = new TargetStore();
+        for (final GeneratorTarget target : targets)
+        {
+            store.add(target.namespace(), target.path());
+        }
+        return store;
+    }
+
+    /**
+     * Adds the target {@code namespace:path} unless it is already present.
+     *
+     * @return the index of the entry
+     */
+    int add(final String namespace, final String path)
+    {
+        final int namespaceId = namespaceIds.computeIfAbsent(namespace, ns -> {
+            namespaces.add(ns);
+            return namespaces.size() - 1;
+        });
+
+        final int hash = hash(namespaceId, path);
+        final int existing = find(namespaceId, path, hash);
+        if (existing != EMPTY)
+        {
+            return existing;
+        }
+
+        ensureCapacity(path.length());
+        path.getChars(0, path.length(), arena, arenaSize);
+        arenaSize += path.length();
+
+        final int index = size++;
+        namespaceOf[index] = namespaceId;
+        hashes[index] = hash;
+        offsets[index + 1] = arenaSize;
+        insert(index, hash);
+        return index;
+    }
+
+    /**
+     * The index of the target {@code namespace:path}, or {@code -1} when it is not present.
+     */
+    int indexOf(final String namespace, final String path)
+    {
+        final Integer namespaceId = namespaceIds.get(namespace);
+        if (namespaceId == null)
+        {
+            return EMPTY;
+        }
+        return find(namespaceId, path, hash(namespaceId, path));
+    }
+
+    /**
+     * Whether {@code target} is present.
+     */
+    boolean contains(final GeneratorTarget target)
+    {
+        return indexOf(target.namespace(), target.path()) != EMPTY;
+    }
+
+    /**
+     * The number of distinct targets.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    String namespace(final int index)
+    {
+        return namespaces.get(namespaceOf[index]);
+    }
+
+    String path(final int index)
+    {
+        return new String(arena, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * Creates a new {@link GeneratorTarget} for the entry at {@code index}; prefer {@link #namespace} and
+     * {@link #path} where no target object is needed.
+     */
+    GeneratorTarget get(final int index)
+    {
+        return new GeneratorTarget(namespace(index), path(index));
+    }
+
+    /**
+     * The indices of all entries {@code filter} includes, in insertion order. Namespace rules are evaluated
+     * once per namespace, paths are only materialised when target rules are configured.
+     */
+    int[] select(final TargetFilter filter)
+    {
+        final int[] selected = new int[size];
+        if (!filter.filtersTargets())
+        {
+            for (int i = 0; i < size; i++)
+            {
+                selected[i] = i;
+            }
+            return selected;
+        }
+
+        final boolean[] includedNamespaces = new boolean[namespaces.size()];
+        for (int id = 0; id < includedNamespaces.length; id++)
+        {
+            includedNamespaces[id] = filter.includesNamespace(namespaces.get(id));
+        }
+
+        int count = 0;
+        for (int i = 0; i < size; i++)
+        {
+            if (includedNamespaces[namespaceOf[i]] && filter.includes(namespace(i), path(i)))
+            {
+                selected[count++] = i;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private int find(final int namespaceId, final String path, final int hash)
+    {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        int index;
+        while ((index = table[slot]) != EMPTY)
+        {
+            if (hashes[index] == hash && namespaceOf[index] == namespaceId && pathEquals(index, path))
+            {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    private boolean pathEquals(final int index, final String path)
+    {
+        final int start = offsets[index];
+        if (offsets[index + 1] - start != path.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < path.length(); i++)
+        {
+            if (arena[start + i] != path.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(final int index, final int hash)
+    {
+        // Keep the table at most half full so probe sequences stay short
+        if (size * 2 > table.length)
+        {
+            table = newTable(table.length * 2);
+            for (int i = 0; i < size - 1; i++)
+            {
+                place(i, hashes[i]);
+            }
+        }
+        place(index, hash);
+    }
+
+    private void place(final int index, final int hash)
+    {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != EMPTY)
+        {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index;
+    }
+
+    private void ensureCapacity(final int pathLength)
+    {
+        if (arenaSize + pathLength > arena.length)
+        {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + pathLength));
+        }
+        if (size == namespaceOf.length)
+        {
+            namespaceOf = Arrays.copyOf(namespaceOf, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+    }
+
+    private static int[] newTable(final int capacity)
+    {
+        final int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int hash(final int namespaceId, final String path)
+    {
+        final int hash = path.hashCode() * 31 + namespaceId;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,187 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import java.util.Arrays;
+
+/**
+ * Resamples images with a separable area-averaging (box) filter, weighting every source pixel by how much of it a
+ * target pixel covers, so a supersampled render is averaged down instead of point-sampled.
+ *
+ * <p>The filter runs horizontally into a float buffer and then vertically, with the source taps and weights of
+ * every target column and row computed once per resampler. Colors are averaged premultiplied by alpha, so the
+ * transparent black around a render does not darken its anti-aliased edges. When enlarging, the filter window
+ * widens to one source pixel, which makes it a linear interpolation. Instances are immutable and may be shared.
+ */
+public final class AreaResampler
+{
+    private final int  sourceWidth;
+    private final int  sourceHeight;
+    private final int  targetWidth;
+    private final int  targetHeight;
+    private final Taps columns;
+    private final Taps rows;
+
+    /**
+     * @param sourceWidth  the width of the source region to resample
+     * @param sourceHeight the height of the source region to resample
+     * @param targetWidth  the width of the resampled image
+     * @param targetHeight the height of the resampled image
+     */
+    public AreaResampler(final int sourceWidth, final int sourceHeight, final int targetWidth, final int targetHeight)
+    {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.columns = Taps.of(sourceWidth, targetWidth);
+        this.rows = Taps.of(sourceHeight, targetHeight);
+    }
+
+    /**
+     * Resamples the whole of {@code source}, which must have this resampler's source size.
+     */
+    public RgbaImage resample(final RgbaImage source)
+    {
+        if (source.getWidth() != sourceWidth || source.getHeight() != sourceHeight)
+        {
+            throw new IllegalArgumentException("Expected a " + sourceWidth + "x" + sourceHeight + " image, got " + source.getWidth() + "x" + source.getHeight());
+        }
+        return resample(source, 0, 0);
+    }
+
+    /**
+     * Resamples the region of this resampler's source size at {@code originX}, {@code originY} of {@code source}.
+     * Parts of the region outside the image are transparent.
+     */
+    public RgbaImage resample(final RgbaImage source, final int originX, final int originY)
+    {
+        final int width = source.getWidth();
+        final int height = source.getHeight();
+        final int[] pixels = source.getPixels();
+
+        // Horizontal pass: premultiplied red, green, blue and alpha of every target column, per source row
+        final int stride = targetWidth * 4;
+        final float[] filtered = new float[sourceHeight * stride];
+        for (int sy = 0; sy < sourceHeight; sy++)
+        {
+            final int y = originY + sy;
+            if (y < 0 || y >= height)
+            {
+                continue;
+            }
+
+            final int row = y * width;
+            for (int dx = 0, out = sy * stride; dx < targetWidth; dx++, out += 4)
+            {
+                float r = 0, g = 0, b = 0, a = 0;
+                final int end = columns.offsets[dx + 1];
+                for (int i = columns.offsets[dx], x = originX + columns.first[dx]; i < end; i++, x++)
+                {
+                    if (x < 0 || x >= width)
+                    {
+                        continue;
+                    }
+                    final int pixel = pixels[row + x];
+                    final int alpha = pixel >>> 24;
+                    if (alpha == 0)
+                    {
+                        continue;
+                    }
+
+                    final float w = columns.weights[i] * alpha;
+                    r += (pixel & 0xFF) * w;
+                    g += ((pixel >> 8) & 0xFF) * w;
+                    b += ((pixel >> 16) & 0xFF) * w;
+                    a += w;
+                }
+                filtered[out] = r;
+                filtered[out + 1] = g;
+                filtered[out + 2] = b;
+                filtered[out + 3] = a;
+            }
+        }
+
+        // Vertical pass: sum the filtered rows of every target row, then divide the alpha back out
+        final RgbaImage result = new RgbaImage(targetWidth, targetHeight);
+        final int[] output = result.getPixels();
+        final float[] sum = new float[stride];
+        for (int dy = 0; dy < targetHeight; dy++)
+        {
+            Arrays.fill(sum, 0);
+            final int end = rows.offsets[dy + 1];
+            for (int i = rows.offsets[dy], sy = rows.first[dy]; i < end; i++, sy++)
+            {
+                final float w = rows.weights[i];
+                final int base = sy * stride;
+                for (int k = 0; k < stride; k++)
+                {
+                    sum[k] += filtered[base + k] * w;
+                }
+            }
+
+            final int outputRow = dy * targetWidth;
+            for (int dx = 0, k = 0; dx < targetWidth; dx++, k += 4)
+            {
+                final float a = sum[k + 3];
+                final int alpha = Math.min(255, Math.round(a));
+                if (alpha == 0)
+                {
+                    continue;
+                }
+
+                final int r = Math.min(255, Math.round(sum[k] / a));
+                final int g = Math.min(255, Math.round(sum[k + 1] / a));
+                final int b = Math.min(255, Math.round(sum[k + 2] / a));
+                output[outputRow + dx] = (alpha << 24) | (b << 16) | (g << 8) | r;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The source pixels and weights of every target pixel along one axis. Target pixel {@code d} reads the source
+     * pixels from {@code first[d]} on, with the weights from {@code offsets[d]} up to {@code offsets[d + 1]}.
+     */
+    private record Taps(
+        int[] first,
+        int[] offsets,
+        float[] weights)
+    {
+        static Taps of(final int sourceLength, final int targetLength)
+        {
+            final double scale = (double) sourceLength / targetLength;
+            final double radius = Math.max(scale, 1.0) / 2;
+
+            final int[] first = new int[targetLength];
+            final int[] offsets = new int[targetLength + 1];
+            float[] weights = new float[targetLength * ((int) Math.ceil(radius * 2) + 2)];
+            int count = 0;
+            for (int d = 0; d < targetLength; d++)
+            {
+                final double center = (d + 0.5) * scale;
+                final double start = Math.max(0, center - radius);
+                final double end = Math.min(sourceLength, center + radius);
+                final int firstPixel = (int) Math.floor(start);
+                final int endPixel = Math.max(firstPixel + 1, (int) Math.ceil(end));
+
+                // Coverage of every source pixel, normalised so the window sums to one even where it was clipped
+                double total = 0;
+                for (int s = firstPixel; s < endPixel; s++)
+                {
+                    total += Math.max(0, Math.min(s + 1, end) - Math.max(s, start));
+                }
+                if (count + endPixel - firstPixel > weights.length)
+                {
+                    weights = Arrays.copyOf(weights, weights.length * 2);
+                }
+                for (int s = firstPixel; s < endPixel; s++)
+                {
+                    final double coverage = Math.max(0, Math.min(s + 1, end) - Math.max(s, start));
+                    weights[count++] = total > 0 ? (float) (coverage / total) : 1.0f / (endPixel - firstPixel);
+                }
+                first[d] = firstPixel;
+                offsets[d + 1] = count;
+            }
+            return new Taps(first, offsets, Arrays.copyOf(weights, count));
+        }
+    }
+}
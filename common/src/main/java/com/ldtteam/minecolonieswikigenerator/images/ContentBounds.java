@@ -0,0 +1,24 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+/**
+ * The smallest rectangle containing every non-transparent pixel of an image, inclusive on all sides.
+ *
+ * @param minX the leftmost visible column
+ * @param minY the topmost visible row
+ * @param maxX the rightmost visible column
+ * @param maxY the bottommost visible row
+ */
+public record ContentBounds(
+    int minX,
+    int minY,
+    int maxX,
+    int maxY)
+{
+    /**
+     * The side of the square that fits the content in both directions.
+     */
+    public int squareSize()
+    {
+        return Math.max(maxX - minX + 1, maxY - minY + 1);
+    }
+}
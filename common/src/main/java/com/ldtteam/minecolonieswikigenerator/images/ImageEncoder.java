@@ -0,0 +1,82 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Locale;
+
+/**
+ * Encodes the output of an image generator in the {@link ImageFormat} of the run: PNG through the generator's own
+ * {@link PngEncoder}, or one of the intermediate formats, which a batch converter turns into PNG files later.
+ * Instances are immutable and may be shared between threads.
+ */
+public final class ImageEncoder
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ENV_FORMAT = "IMAGE_FORMAT";
+
+    private final ImageFormat format;
+    private final PngEncoder  pngEncoder;
+
+    /**
+     * @param format     the format to write
+     * @param pngEncoder the encoder for {@link ImageFormat#PNG}, only needed when that is the format
+     * @throws IllegalArgumentException if the format is PNG and there is no {@code pngEncoder}
+     */
+    public ImageEncoder(final ImageFormat format, final PngEncoder pngEncoder)
+    {
+        if (format == ImageFormat.PNG && pngEncoder == null)
+        {
+            throw new IllegalArgumentException("Writing PNG images requires a PngEncoder");
+        }
+        this.format = format;
+        this.pngEncoder = pngEncoder;
+    }
+
+    /**
+     * Reads {@code IMAGE_FORMAT}, one of {@link ImageFormat}, default {@link ImageFormat#PNG}.
+     *
+     * @param pngEncoder the encoder for {@link ImageFormat#PNG}
+     */
+    public static ImageEncoder fromEnvironment(final PngEncoder pngEncoder)
+    {
+        ImageFormat format = ImageFormat.PNG;
+        final String value = System.getenv(ENV_FORMAT);
+        if (value != null && !value.isBlank())
+        {
+            try
+            {
+                format = ImageFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            }
+            catch (IllegalArgumentException e)
+            {
+                LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", value, ENV_FORMAT, ImageFormat.PNG);
+            }
+        }
+        return new ImageEncoder(format, pngEncoder);
+    }
+
+    public ImageFormat getFormat()
+    {
+        return format;
+    }
+
+    /**
+     * The file extension of the written images, without the dot.
+     */
+    public String getExtension()
+    {
+        return format.getExtension();
+    }
+
+    public byte[] encode(final RgbaImage image)
+    {
+        return switch (format)
+        {
+            case PNG -> pngEncoder.encode(image);
+            case QOI -> QoiCodec.encode(image);
+            case RAW -> RawCodec.encode(image);
+        };
+    }
+}
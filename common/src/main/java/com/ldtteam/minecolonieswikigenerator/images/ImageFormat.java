@@ -0,0 +1,105 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The file formats the image generators can write. PNG is what the wiki publishes; QOI and raw RGBA are intermediate
+ * formats that skip the cost of PNG compression during render runs, and are converted to PNG afterwards.
+ */
+public enum ImageFormat
+{
+    PNG("png"),
+    /**
+     * The Quite OK Image format: lossless, roughly as fast to write as raw pixels and a fraction of their size.
+     */
+    QOI("qoi"),
+    /**
+     * Uncompressed RGBA bytes after a 12 byte header.
+     */
+    RAW("rgba");
+
+    private final String extension;
+
+    ImageFormat(final String extension)
+    {
+        this.extension = extension;
+    }
+
+    /**
+     * The file extension, without the dot.
+     */
+    public String getExtension()
+    {
+        return extension;
+    }
+
+    /**
+     * Whether files of this format are meant to be converted to PNG before publishing.
+     */
+    public boolean isIntermediate()
+    {
+        return this != PNG;
+    }
+
+    /**
+     * Returns the format with the given file extension, ignoring case, or {@code null} if there is none.
+     */
+    public static ImageFormat fromExtension(final String extension)
+    {
+        final String normalized = extension.toLowerCase(Locale.ROOT);
+        for (final ImageFormat format : values())
+        {
+            if (format.extension.equals(normalized))
+            {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes a file of this format. Files are encoded through an {@link ImageEncoder}. PNG files are read through
+     * {@link ImageIO}, which is slow but only needed to read back earlier output.
+     *
+     * @throws IllegalArgumentException if {@code data} is not a valid image of this format
+     */
+    public RgbaImage decode(final byte[] data)
+    {
+        return switch (this)
+        {
+            case QOI -> QoiCodec.decode(data);
+            case RAW -> RawCodec.decode(data);
+            case PNG -> decodePng(data);
+        };
+    }
+
+    private static RgbaImage decodePng(final byte[] data)
+    {
+        final BufferedImage image;
+        try
+        {
+            image = ImageIO.read(new ByteArrayInputStream(data));
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Invalid PNG image", e);
+        }
+        if (image == null)
+        {
+            throw new IllegalArgumentException("Not a PNG image");
+        }
+
+        final int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        for (int i = 0; i < pixels.length; i++)
+        {
+            // ARGB to red in the lowest byte
+            final int argb = pixels[i];
+            pixels[i] = (argb & 0xFF00FF00) | ((argb >> 16) & 0xFF) | ((argb & 0xFF) << 16);
+        }
+        return new RgbaImage(image.getWidth(), image.getHeight(), pixels);
+    }
+}
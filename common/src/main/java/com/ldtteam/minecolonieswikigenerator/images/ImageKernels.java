@@ -0,0 +1,142 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+/**
+ * Post-processing steps the image generators apply to a rendered framebuffer after reading it back.
+ *
+ * <p>All kernels work on plain {@link RgbaImage}s, so they can be run and benchmarked without a GPU.
+ */
+public final class ImageKernels
+{
+    private ImageKernels()
+    {
+    }
+
+    /**
+     * Finds the bounds of all pixels with a non-zero alpha.
+     *
+     * <p>Rows are scanned from the top and bottom edges until the first one with content, so transparent margins
+     * cost a single pass each. Between them, every row is only scanned outside the columns already known to hold
+     * content, so the interior of the content is never read.
+     *
+     * @return the bounds, or {@code null} when the image is fully transparent
+     */
+    public static ContentBounds findContentBounds(final RgbaImage image)
+    {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] pixels = image.getPixels();
+
+        int minY = 0;
+        while (minY < height && !hasAlpha(pixels, minY * width, width))
+        {
+            minY++;
+        }
+        if (minY == height)
+        {
+            return null;
+        }
+
+        int maxY = height - 1;
+        while (!hasAlpha(pixels, maxY * width, width))
+        {
+            maxY--;
+        }
+
+        int minX = width, maxX = -1;
+        for (int y = minY; y <= maxY; y++)
+        {
+            final int row = y * width;
+            for (int x = 0; x < minX; x++)
+            {
+                if ((pixels[row + x] >>> 24) != 0)
+                {
+                    minX = x;
+                    break;
+                }
+            }
+            for (int x = width - 1; x > maxX; x--)
+            {
+                if ((pixels[row + x] >>> 24) != 0)
+                {
+                    maxX = x;
+                    break;
+                }
+            }
+        }
+        return new ContentBounds(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Crops {@code source} to a square centred on {@code bounds} and scales it to {@code size}x{@code size}
+     * with an {@link AreaResampler}. Parts of the square outside the source are transparent.
+     */
+    public static RgbaImage cropToSquare(final RgbaImage source, final ContentBounds bounds, final int size)
+    {
+        final int cropSize = bounds.squareSize();
+        final int centerX = (bounds.minX() + bounds.maxX()) / 2;
+        final int centerY = (bounds.minY() + bounds.maxY()) / 2;
+        final int cropMinX = Math.max(0, centerX - cropSize / 2);
+        final int cropMinY = Math.max(0, centerY - cropSize / 2);
+        return new AreaResampler(cropSize, cropSize, size, size).resample(source, cropMinX, cropMinY);
+    }
+
+    /**
+     * Copies the {@code width}x{@code height} region at {@code x}, {@code y} of {@code source} into a new image.
+     */
+    public static RgbaImage copyRegion(final RgbaImage source, final int x, final int y, final int width, final int height)
+    {
+        final RgbaImage region = new RgbaImage(width, height);
+        final int[] from = source.getPixels();
+        final int[] to = region.getPixels();
+        for (int row = 0; row < height; row++)
+        {
+            System.arraycopy(from, (y + row) * source.getWidth() + x, to, row * width, width);
+        }
+        return region;
+    }
+
+    /**
+     * Copies all of {@code source} into {@code target} with its top left corner at {@code x}, {@code y}, replacing
+     * the pixels there. The source must fit into the target.
+     */
+    public static void copyInto(final RgbaImage source, final RgbaImage target, final int x, final int y)
+    {
+        final int[] from = source.getPixels();
+        final int[] to = target.getPixels();
+        final int width = source.getWidth();
+        for (int row = 0; row < source.getHeight(); row++)
+        {
+            System.arraycopy(from, row * width, to, (y + row) * target.getWidth() + x, width);
+        }
+    }
+
+    /**
+     * Mirrors {@code image} top to bottom in place, e.g. to turn the bottom-up rows of a framebuffer readback upright.
+     */
+    public static void flipVertically(final RgbaImage image)
+    {
+        final int[] pixels = image.getPixels();
+        final int width = image.getWidth();
+        final int[] row = new int[width];
+        for (int top = 0, bottom = image.getHeight() - 1; top < bottom; top++, bottom--)
+        {
+            System.arraycopy(pixels, top * width, row, 0, width);
+            System.arraycopy(pixels, bottom * width, pixels, top * width, width);
+            System.arraycopy(row, 0, pixels, bottom * width, width);
+        }
+    }
+
+    /**
+     * Whether any of the {@code length} pixels from {@code offset} has a non-zero alpha. Ors the whole row instead of
+     * stopping at the first hit, a branch-free loop the JIT can vectorize.
+     */
+    private static boolean hasAlpha(final int[] pixels, final int offset, final int length)
+    {
+        int alpha = 0;
+        for (int i = offset; i < offset + length; i++)
+        {
+            alpha |= pixels[i];
+        }
+        return (alpha >>> 24) != 0;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import java.util.Arrays;
+
+/**
+ * The exact colors of an image with at most {@value #MAX_COLORS} of them, for writing it as an indexed PNG without
+ * losing anything. Colors that are not fully opaque come first, so the PNG transparency chunk only has to cover the
+ * start of the palette.
+ *
+ * <p>Colors are looked up through a small open-addressing table keyed by the packed pixel, which stays at most a
+ * quarter full.
+ */
+final class Palette
+{
+    static final int MAX_COLORS = 256;
+
+    private static final int SLOTS = 1024;
+    private static final int MASK  = SLOTS - 1;
+
+    private final int[]   keys    = new int[SLOTS];
+    private final short[] indices = new short[SLOTS];
+    private final int[]   colors;
+    private final int     translucentColors;
+    private final int     bitDepth;
+
+    private Palette(final int[] colors, final int translucentColors)
+    {
+        this.colors = colors;
+        this.translucentColors = translucentColors;
+        this.bitDepth = colors.length <= 2 ? 1 : colors.length <= 4 ? 2 : colors.length <= 16 ? 4 : 8;
+        Arrays.fill(indices, (short) -1);
+        for (int i = 0; i < colors.length; i++)
+        {
+            int slot = slot(colors[i]);
+            while (indices[slot] >= 0)
+            {
+                slot = (slot + 1) & MASK;
+            }
+            keys[slot] = colors[i];
+            indices[slot] = (short) i;
+        }
+    }
+
+    /**
+     * Collects the colors of {@code image}, or returns {@code null} as soon as it finds more than
+     * {@value #MAX_COLORS}.
+     */
+    static Palette of(final RgbaImage image)
+    {
+        final int[] keys = new int[SLOTS];
+        final boolean[] used = new boolean[SLOTS];
+        final int[] colors = new int[MAX_COLORS];
+        int count = 0;
+        int translucent = 0;
+
+        int previous = 0;
+        boolean first = true;
+        for (final int pixel : image.getPixels())
+        {
+            // Runs of one color are the common case in sprites, skip the table for them
+            if (pixel == previous && !first)
+            {
+                continue;
+            }
+            previous = pixel;
+            first = false;
+
+            int slot = slot(pixel);
+            while (used[slot] && keys[slot] != pixel)
+            {
+                slot = (slot + 1) & MASK;
+            }
+            if (used[slot])
+            {
+                continue;
+            }
+            if (count == MAX_COLORS)
+            {
+                return null;
+            }
+            used[slot] = true;
+            keys[slot] = pixel;
+            colors[count++] = pixel;
+            if (pixel >>> 24 != 0xFF)
+            {
+                translucent++;
+            }
+        }
+
+        // Translucent colors first, in the order they were found, then the opaque ones
+        final int[] ordered = new int[count];
+        int translucentIndex = 0;
+        int opaqueIndex = translucent;
+        for (int i = 0; i < count; i++)
+        {
+            if (colors[i] >>> 24 != 0xFF)
+            {
+                ordered[translucentIndex++] = colors[i];
+            }
+            else
+            {
+                ordered[opaqueIndex++] = colors[i];
+            }
+        }
+        return new Palette(ordered, translucent);
+    }
+
+    private static int slot(final int pixel)
+    {
+        return (pixel * 0x9E3779B9) >>> 22;
+    }
+
+    /**
+     * The number of colors.
+     */
+    int size()
+    {
+        return colors.length;
+    }
+
+    /**
+     * The number of colors, at the start of the palette, that are not fully opaque.
+     */
+    int translucentColors()
+    {
+        return translucentColors;
+    }
+
+    /**
+     * The smallest PNG bit depth that holds every index: 1, 2, 4 or 8.
+     */
+    int bitDepth()
+    {
+        return bitDepth;
+    }
+
+    /**
+     * The color at {@code index}, red in the lowest byte like {@link RgbaImage} pixels.
+     */
+    int color(final int index)
+    {
+        return colors[index];
+    }
+
+    /**
+     * The number of bytes of a packed row of {@code width} indices.
+     */
+    int stride(final int width)
+    {
+        return (width * bitDepth + 7) / 8;
+    }
+
+    /**
+     * Packs the indices of {@code width} pixels into {@code row}, leftmost pixel in the highest bits of a byte, with
+     * the unused bits at the end of the row cleared.
+     */
+    void pack(final int[] pixels, final int offset, final int width, final byte[] row)
+    {
+        int previous = pixels[offset];
+        int index = indexOf(previous);
+        int bits = 0;
+        int pending = 0;
+        int position = 0;
+        for (int x = 0; x < width; x++)
+        {
+            final int pixel = pixels[offset + x];
+            if (pixel != previous)
+            {
+                previous = pixel;
+                index = indexOf(pixel);
+            }
+            pending = (pending << bitDepth) | index;
+            bits += bitDepth;
+            if (bits == 8)
+            {
+                row[position++] = (byte) pending;
+                pending = 0;
+                bits = 0;
+            }
+        }
+        if (bits > 0)
+        {
+            row[position] = (byte) (pending << (8 - bits));
+        }
+    }
+
+    private int indexOf(final int pixel)
+    {
+        int slot = slot(pixel);
+        while (indices[slot] < 0 || keys[slot] != pixel)
+        {
+            slot = (slot + 1) & MASK;
+        }
+        return indices[slot];
+    }
+}
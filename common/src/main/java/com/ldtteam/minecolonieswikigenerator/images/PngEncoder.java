@@ -0,0 +1,738 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes {@link RgbaImage}s as 8-bit RGBA PNG files with a configurable compression level and row filter.
+ *
+ * <p>With {@link #withPalette()}, images of at most 256 distinct colors, such as flat item sprites, are written
+ * losslessly as indexed PNGs instead: a palette, a transparency chunk for its translucent entries and rows of 1, 2,
+ * 4 or 8 bit indices, which is often a fraction of the RGBA size. Other images fall back to RGBA.
+ *
+ * <p>Every thread keeps its own {@link Deflater} and scratch buffers, so encoding many images allocates little
+ * more than the returned array. Large images can be split into bands of rows that are filtered and compressed in
+ * parallel; each band is flushed to a byte boundary so the compressed bands join into one valid stream, at the cost
+ * of a slightly larger file. Instances are immutable and may be shared between threads.
+ */
+public final class PngEncoder
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ENV_COMPRESSION = "PNG_COMPRESSION";
+    private static final String ENV_FILTER      = "PNG_FILTER";
+
+    private static final int    DEFAULT_COMPRESSION = 6;
+    private static final int    BYTES_PER_PIXEL     = 4;
+    private static final byte[] SIGNATURE           = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * The filters {@link Filter#ADAPTIVE} tries besides leaving the row as it is.
+     */
+    private static final Filter[] CANDIDATES = {Filter.SUB, Filter.UP, Filter.AVERAGE, Filter.PAETH};
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(() -> new Scratch(true));
+
+    /**
+     * The PNG row filters. Each row is stored as its difference to a prediction from its neighbours, which makes
+     * smooth images compress better.
+     */
+    public enum Filter
+    {
+        NONE,
+        SUB,
+        UP,
+        AVERAGE,
+        PAETH,
+        /**
+         * Picks the filter per row whose output has the smallest sum of absolute values, as most encoders do.
+         */
+        ADAPTIVE
+    }
+
+    private final int      compressionLevel;
+    private final Filter   filter;
+    private final boolean  palette;
+    private final int      bandRows;
+    private final Executor executor;
+
+    /**
+     * @param compressionLevel the {@link Deflater} level, from 0 (store) to 9 (smallest)
+     * @param filter           the row filter
+     */
+    public PngEncoder(final int compressionLevel, final Filter filter)
+    {
+        this(compressionLevel, filter, false, 0, null);
+    }
+
+    private PngEncoder(final int compressionLevel, final Filter filter, final boolean palette, final int bandRows, final Executor executor)
+    {
+        if (compressionLevel < 0 || compressionLevel > 9)
+        {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9, got " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        this.filter = filter;
+        this.palette = palette;
+        this.bandRows = bandRows;
+        this.executor = executor;
+    }
+
+    /**
+     * Reads {@code PNG_COMPRESSION} (0 to 9, default {@value #DEFAULT_COMPRESSION}) and {@code PNG_FILTER}
+     * (one of {@link Filter}, default {@link Filter#ADAPTIVE}).
+     */
+    public static PngEncoder fromEnvironment()
+    {
+        return fromEnvironment(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Like {@link #fromEnvironment()}, with a different compression level when {@code PNG_COMPRESSION} is not set.
+     */
+    public static PngEncoder fromEnvironment(final int defaultCompression)
+    {
+        int compressionLevel = defaultCompression;
+        final String compressionValue = System.getenv(ENV_COMPRESSION);
+        if (compressionValue != null && !compressionValue.isBlank())
+        {
+            try
+            {
+                compressionLevel = Integer.parseInt(compressionValue.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                compressionLevel = -1;
+            }
+            if (compressionLevel < 0 || compressionLevel > 9)
+            {
+                LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", compressionValue, ENV_COMPRESSION, defaultCompression);
+                compressionLevel = defaultCompression;
+            }
+        }
+
+        Filter filter = Filter.ADAPTIVE;
+        final String filterValue = System.getenv(ENV_FILTER);
+        if (filterValue != null && !filterValue.isBlank())
+        {
+            try
+            {
+                filter = Filter.valueOf(filterValue.trim().toUpperCase(Locale.ROOT));
+            }
+            catch (IllegalArgumentException e)
+            {
+                LOGGER.warn("Ignoring invalid value '{}' for {}, using {}", filterValue, ENV_FILTER, Filter.ADAPTIVE);
+            }
+        }
+        return new PngEncoder(compressionLevel, filter);
+    }
+
+    /**
+     * Returns an encoder that splits images taller than {@code bandRows} into bands of that many rows, filtered and
+     * compressed in parallel on {@code executor}. The calling thread encodes the first band and waits for the rest.
+     */
+    public PngEncoder withParallelBands(final int bandRows, final Executor executor)
+    {
+        if (bandRows <= 0)
+        {
+            throw new IllegalArgumentException("Band rows must be positive, got " + bandRows);
+        }
+        return new PngEncoder(compressionLevel, filter, palette, bandRows, executor);
+    }
+
+    /**
+     * Returns an encoder that writes images of at most 256 colors as indexed PNGs. Their rows are left unfiltered,
+     * as the PNG specification recommends for palette images, whatever the configured filter.
+     */
+    public PngEncoder withPalette()
+    {
+        return new PngEncoder(compressionLevel, filter, true, bandRows, executor);
+    }
+
+    /**
+     * Encodes {@code image} as a PNG file.
+     */
+    public byte[] encode(final RgbaImage image)
+    {
+        final Palette colors = palette ? Palette.of(image) : null;
+        final Layout layout = colors == null
+            ? new Layout(null, image.getWidth() * BYTES_PER_PIXEL, BYTES_PER_PIXEL, filter)
+            : new Layout(colors, colors.stride(image.getWidth()), 1, Filter.NONE);
+
+        final Scratch scratch = Scratch.acquire();
+        try
+        {
+            return encode(image, layout, scratch);
+        }
+        finally
+        {
+            scratch.release();
+        }
+    }
+
+    private byte[] encode(final RgbaImage image, final Layout layout, final Scratch scratch)
+    {
+        final int height = image.getHeight();
+        final int stride = layout.stride();
+        final Palette colors = layout.palette();
+        final Output out = scratch.output;
+        out.reset();
+        out.write(SIGNATURE);
+
+        // Bit depth and color type: 8-bit RGBA, or palette indices of the palette's depth
+        final byte[] header = new byte[13];
+        ByteBuffer.wrap(header)
+            .putInt(image.getWidth())
+            .putInt(height)
+            .put((byte) (colors == null ? 8 : colors.bitDepth()))
+            .put((byte) (colors == null ? 6 : 3))
+            .put((byte) 0)
+            .put((byte) 0)
+            .put((byte) 0);
+        writeChunk(out, "IHDR", header, 0, header.length);
+        if (colors != null)
+        {
+            writePalette(out, colors);
+        }
+
+        // The image data chunk is written in place: reserve its length and type, compress behind them, then fill in
+        final int idatStart = out.size();
+        out.writeInt(0);
+        out.write("IDAT".getBytes(StandardCharsets.US_ASCII));
+        out.writeByte(0x78);
+        out.writeByte(zlibFlags());
+
+        final Adler32 adler = new Adler32();
+        if (bandRows > 0 && height > bandRows)
+        {
+            compressBands(image, layout, out, adler);
+        }
+        else
+        {
+            final byte[] filtered = scratch.filtered(height * (stride + 1));
+            filterRows(image, layout, 0, height, filtered, scratch);
+            adler.update(filtered, 0, height * (stride + 1));
+            deflate(scratch.deflater(compressionLevel), filtered, height * (stride + 1), true, out);
+        }
+        out.writeInt((int) adler.getValue());
+
+        final int dataLength = out.size() - idatStart - 8;
+        out.putInt(idatStart, dataLength);
+        out.writeInt(crc(out.buffer(), idatStart + 4, dataLength + 4));
+
+        writeChunk(out, "IEND", new byte[0], 0, 0);
+        return out.toByteArray();
+    }
+
+    /**
+     * Filters and compresses bands of rows in parallel into separate raw deflate streams, and joins them in order.
+     * All but the last band end with a sync flush instead of a final block, so their concatenation is one stream.
+     */
+    private void compressBands(final RgbaImage image, final Layout layout, final Output out, final Adler32 adler)
+    {
+        final int height = image.getHeight();
+        final List<CompletableFuture<byte[][]>> bands = new ArrayList<>();
+        for (int start = bandRows; start < height; start += bandRows)
+        {
+            final int bandStart = start;
+            final int bandEnd = Math.min(height, start + bandRows);
+            bands.add(CompletableFuture.supplyAsync(() -> compressBand(image, layout, bandStart, bandEnd), executor));
+        }
+
+        final byte[][] first = compressBand(image, layout, 0, bandRows);
+        adler.update(first[0]);
+        out.write(first[1]);
+        for (final CompletableFuture<byte[][]> band : bands)
+        {
+            final byte[][] result = band.join();
+            adler.update(result[0]);
+            out.write(result[1]);
+        }
+    }
+
+    /**
+     * @return the filtered rows and their compressed form
+     */
+    private byte[][] compressBand(final RgbaImage image, final Layout layout, final int startRow, final int endRow)
+    {
+        final Scratch scratch = Scratch.acquire();
+        try
+        {
+            final int length = (endRow - startRow) * (layout.stride() + 1);
+            final byte[] filtered = new byte[length];
+            filterRows(image, layout, startRow, endRow, filtered, scratch);
+
+            final Output compressed = new Output(length / 2 + 64);
+            deflate(scratch.deflater(compressionLevel), filtered, length, endRow == image.getHeight(), compressed);
+            return new byte[][] {filtered, compressed.toByteArray()};
+        }
+        finally
+        {
+            scratch.release();
+        }
+    }
+
+    private static void deflate(final Deflater deflater, final byte[] input, final int length, final boolean last, final Output out)
+    {
+        deflater.reset();
+        deflater.setInput(input, 0, length);
+        if (last)
+        {
+            deflater.finish();
+            while (!deflater.finished())
+            {
+                out.ensureCapacity(Math.max(8192, length / 4));
+                out.advance(deflater.deflate(out.buffer(), out.size(), out.remaining()));
+            }
+        }
+        else
+        {
+            // Keep flushing until the output buffer was not filled, i.e. all pending output was written
+            do
+            {
+                out.ensureCapacity(Math.max(8192, length / 4));
+                out.advance(deflater.deflate(out.buffer(), out.size(), out.remaining(), Deflater.SYNC_FLUSH));
+            }
+            while (out.remaining() == 0 || !deflater.needsInput());
+        }
+    }
+
+    /**
+     * Writes rows {@code startRow} to {@code endRow} of {@code image} into {@code target}, each as its filter type
+     * byte followed by the filtered row.
+     */
+    private static void filterRows(final RgbaImage image, final Layout layout, final int startRow, final int endRow, final byte[] target, final Scratch scratch)
+    {
+        final int width = image.getWidth();
+        final int stride = layout.stride();
+        final int bpp = layout.bytesPerPixel();
+        final Filter filter = layout.filter();
+        final int[] pixels = image.getPixels();
+        byte[] previous = scratch.previousRow(stride);
+        byte[] current = scratch.currentRow(stride);
+
+        // The first band row is predicted from the row above it, which belongs to the previous band
+        if (startRow > 0)
+        {
+            layout.toBytes(pixels, (startRow - 1) * width, width, previous);
+        }
+        else
+        {
+            Arrays.fill(previous, (byte) 0);
+        }
+
+        int position = 0;
+        for (int y = startRow; y < endRow; y++)
+        {
+            layout.toBytes(pixels, y * width, width, current);
+            if (filter == Filter.ADAPTIVE)
+            {
+                filterAdaptive(current, previous, stride, bpp, target, position, scratch);
+            }
+            else
+            {
+                target[position] = (byte) filter.ordinal();
+                applyFilter(filter, current, previous, stride, bpp, target, position + 1);
+            }
+            position += stride + 1;
+
+            final byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+    }
+
+    /**
+     * Unpacks {@code width} pixels into RGBA bytes; little-endian ints hold the channels in exactly that order.
+     */
+    private static void toBytes(final int[] pixels, final int offset, final int width, final byte[] row)
+    {
+        ByteBuffer.wrap(row).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(pixels, offset, width);
+    }
+
+    /**
+     * Filters {@code row} with every filter and writes the one with the smallest sum of absolute values, preceded by
+     * its type byte.
+     */
+    private static void filterAdaptive(
+        final byte[] row,
+        final byte[] previous,
+        final int stride,
+        final int bpp,
+        final byte[] target,
+        final int offset,
+        final Scratch scratch)
+    {
+        byte[] best = row;
+        Filter bestFilter = Filter.NONE;
+        long bestSum = sumAbsolute(row, stride);
+        for (final Filter candidate : CANDIDATES)
+        {
+            final byte[] filtered = scratch.candidateRow(candidate, stride);
+            applyFilter(candidate, row, previous, stride, bpp, filtered, 0);
+            final long sum = sumAbsolute(filtered, stride);
+            if (sum < bestSum)
+            {
+                bestSum = sum;
+                best = filtered;
+                bestFilter = candidate;
+            }
+        }
+        target[offset] = (byte) bestFilter.ordinal();
+        System.arraycopy(best, 0, target, offset + 1, stride);
+    }
+
+    private static long sumAbsolute(final byte[] bytes, final int length)
+    {
+        long sum = 0;
+        for (int i = 0; i < length; i++)
+        {
+            sum += Math.abs(bytes[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Writes {@code row} filtered with {@code rowFilter} to {@code target}, one loop per filter so each stays tight.
+     * The left neighbour of the first pixel and everything above the first row count as zero.
+     */
+    private static void applyFilter(
+        final Filter rowFilter,
+        final byte[] row,
+        final byte[] previous,
+        final int stride,
+        final int bpp,
+        final byte[] target,
+        final int offset)
+    {
+        switch (rowFilter)
+        {
+            case SUB ->
+            {
+                System.arraycopy(row, 0, target, offset, bpp);
+                for (int i = bpp; i < stride; i++)
+                {
+                    target[offset + i] = (byte) (row[i] - row[i - bpp]);
+                }
+            }
+            case UP ->
+            {
+                for (int i = 0; i < stride; i++)
+                {
+                    target[offset + i] = (byte) (row[i] - previous[i]);
+                }
+            }
+            case AVERAGE ->
+            {
+                for (int i = 0; i < bpp; i++)
+                {
+                    target[offset + i] = (byte) (row[i] - ((previous[i] & 0xFF) >>> 1));
+                }
+                for (int i = bpp; i < stride; i++)
+                {
+                    target[offset + i] = (byte) (row[i] - (((row[i - bpp] & 0xFF) + (previous[i] & 0xFF)) >>> 1));
+                }
+            }
+            case PAETH ->
+            {
+                for (int i = 0; i < bpp; i++)
+                {
+                    target[offset + i] = (byte) (row[i] - previous[i]);
+                }
+                for (int i = bpp; i < stride; i++)
+                {
+                    target[offset + i] = (byte) (row[i] - paeth(row[i - bpp] & 0xFF, previous[i] & 0xFF, previous[i - bpp] & 0xFF));
+                }
+            }
+            default -> System.arraycopy(row, 0, target, offset, stride);
+        }
+    }
+
+    private static int paeth(final int left, final int up, final int upLeft)
+    {
+        final int estimate = left + up - upLeft;
+        final int distanceLeft = Math.abs(estimate - left);
+        final int distanceUp = Math.abs(estimate - up);
+        final int distanceUpLeft = Math.abs(estimate - upLeft);
+        if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft)
+        {
+            return left;
+        }
+        return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+
+    /**
+     * The second zlib header byte: the compression level hint, padded so the header is a multiple of 31.
+     */
+    private int zlibFlags()
+    {
+        final int levelHint = compressionLevel < 2 ? 0 : compressionLevel < 6 ? 1 : compressionLevel == 6 ? 2 : 3;
+        final int flags = levelHint << 6;
+        return flags + 31 - ((0x78 << 8 | flags) % 31);
+    }
+
+    /**
+     * Writes the palette chunk and, if any color is not fully opaque, the transparency chunk with the alpha of the
+     * palette entries up to the last such color.
+     */
+    private static void writePalette(final Output out, final Palette colors)
+    {
+        final byte[] rgb = new byte[colors.size() * 3];
+        final byte[] alpha = new byte[colors.translucentColors()];
+        for (int i = 0; i < colors.size(); i++)
+        {
+            final int color = colors.color(i);
+            rgb[i * 3] = (byte) color;
+            rgb[i * 3 + 1] = (byte) (color >> 8);
+            rgb[i * 3 + 2] = (byte) (color >> 16);
+            if (i < alpha.length)
+            {
+                alpha[i] = (byte) (color >>> 24);
+            }
+        }
+        writeChunk(out, "PLTE", rgb, 0, rgb.length);
+        if (alpha.length > 0)
+        {
+            writeChunk(out, "tRNS", alpha, 0, alpha.length);
+        }
+    }
+
+    private static void writeChunk(final Output out, final String type, final byte[] data, final int offset, final int length)
+    {
+        final int start = out.size();
+        out.writeInt(length);
+        out.write(type.getBytes(StandardCharsets.US_ASCII));
+        out.write(data, offset, length);
+        out.writeInt(crc(out.buffer(), start + 4, length + 4));
+    }
+
+    private static int crc(final byte[] buffer, final int offset, final int length)
+    {
+        final CRC32 crc = new CRC32();
+        crc.update(buffer, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * How the pixels of one image are stored: as RGBA bytes, or as palette indices when {@code palette} is set.
+     *
+     * @param stride        the number of bytes of a row, without its filter type byte
+     * @param bytesPerPixel the distance to the left neighbour of a byte, for filtering
+     */
+    private record Layout(
+        Palette palette,
+        int stride,
+        int bytesPerPixel,
+        Filter filter)
+    {
+        void toBytes(final int[] pixels, final int offset, final int width, final byte[] row)
+        {
+            if (palette == null)
+            {
+                PngEncoder.toBytes(pixels, offset, width, row);
+            }
+            else
+            {
+                palette.pack(pixels, offset, width, row);
+            }
+        }
+    }
+
+    /**
+     * Per-thread state reused across images.
+     */
+    private static final class Scratch
+    {
+        private final Output   output = new Output(64 * 1024);
+        private final boolean  threadLocal;
+        private       boolean  inUse;
+        private       Deflater deflater;
+        private       int      deflaterLevel = -1;
+        private       byte[]   filtered      = new byte[0];
+        private       byte[]   previousRow   = new byte[0];
+        private       byte[]   currentRow    = new byte[0];
+        private final byte[][] candidateRows = new byte[Filter.values().length][0];
+
+        private Scratch(final boolean threadLocal)
+        {
+            this.threadLocal = threadLocal;
+        }
+
+        /**
+         * Takes the scratch of the current thread, or a fresh one if it is in use further up the stack, which happens
+         * when a thread waiting for its bands runs another encode in the meantime. Every scratch taken must be
+         * {@link #release() released}.
+         */
+        static Scratch acquire()
+        {
+            final Scratch scratch = SCRATCH.get();
+            final Scratch free = scratch.inUse ? new Scratch(false) : scratch;
+            free.inUse = true;
+            return free;
+        }
+
+        /**
+         * Hands the scratch back to its thread, or frees the native memory of the deflater of a fresh one instead of
+         * leaving it to the garbage collector.
+         */
+        void release()
+        {
+            inUse = false;
+            if (!threadLocal && deflater != null)
+            {
+                deflater.end();
+                deflater = null;
+            }
+        }
+
+        Deflater deflater(final int level)
+        {
+            if (deflater == null)
+            {
+                // Raw deflate, the zlib header and checksum are written by the encoder so bands can be joined
+                deflater = new Deflater(level, true);
+                deflaterLevel = level;
+            }
+            else if (deflaterLevel != level)
+            {
+                deflater.setLevel(level);
+                deflaterLevel = level;
+            }
+            return deflater;
+        }
+
+        byte[] filtered(final int length)
+        {
+            if (filtered.length < length)
+            {
+                filtered = new byte[length];
+            }
+            return filtered;
+        }
+
+        byte[] previousRow(final int length)
+        {
+            if (previousRow.length != length)
+            {
+                previousRow = new byte[length];
+            }
+            return previousRow;
+        }
+
+        byte[] candidateRow(final Filter candidate, final int length)
+        {
+            if (candidateRows[candidate.ordinal()].length != length)
+            {
+                candidateRows[candidate.ordinal()] = new byte[length];
+            }
+            return candidateRows[candidate.ordinal()];
+        }
+
+        byte[] currentRow(final int length)
+        {
+            if (currentRow.length != length)
+            {
+                currentRow = new byte[length];
+            }
+            return currentRow;
+        }
+    }
+
+    /**
+     * A growable big-endian byte buffer that is reused between images, unlike a {@code ByteArrayOutputStream}.
+     */
+    private static final class Output
+    {
+        private byte[] buffer;
+        private int    size;
+
+        Output(final int capacity)
+        {
+            this.buffer = new byte[capacity];
+        }
+
+        void reset()
+        {
+            size = 0;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        byte[] buffer()
+        {
+            return buffer;
+        }
+
+        int remaining()
+        {
+            return buffer.length - size;
+        }
+
+        void advance(final int length)
+        {
+            size += length;
+        }
+
+        void ensureCapacity(final int free)
+        {
+            if (remaining() < free)
+            {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + free));
+            }
+        }
+
+        void writeByte(final int value)
+        {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeInt(final int value)
+        {
+            ensureCapacity(4);
+            putInt(size, value);
+            size += 4;
+        }
+
+        void putInt(final int offset, final int value)
+        {
+            buffer[offset] = (byte) (value >>> 24);
+            buffer[offset + 1] = (byte) (value >>> 16);
+            buffer[offset + 2] = (byte) (value >>> 8);
+            buffer[offset + 3] = (byte) value;
+        }
+
+        void write(final byte[] data)
+        {
+            write(data, 0, data.length);
+        }
+
+        void write(final byte[] data, final int offset, final int length)
+        {
+            ensureCapacity(length);
+            System.arraycopy(data, offset, buffer, size, length);
+            size += length;
+        }
+
+        byte[] toByteArray()
+        {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes and decodes images in the Quite OK Image format (QOI), a lossless format that compresses in a single pass
+ * over the pixels with no entropy coding, an order of magnitude faster than PNG at a somewhat larger size.
+ *
+ * <p>Each pixel is stored as a run of the previous pixel, a reference into a 64-entry table of recently seen pixels,
+ * a small difference to the previous pixel, or the pixel itself. See <a href="https://qoiformat.org">qoiformat.org</a>
+ * for the specification.
+ */
+final class QoiCodec
+{
+    private static final byte[] MAGIC       = {'q', 'o', 'i', 'f'};
+    private static final byte[] END         = {0, 0, 0, 0, 0, 0, 0, 1};
+    private static final int    HEADER_SIZE = 14;
+    private static final int    MAX_RUN     = 62;
+
+    private static final int OP_INDEX = 0x00;
+    private static final int OP_DIFF  = 0x40;
+    private static final int OP_LUMA  = 0x80;
+    private static final int OP_RUN   = 0xC0;
+    private static final int OP_RGB   = 0xFE;
+    private static final int OP_RGBA  = 0xFF;
+    private static final int MASK_2   = 0xC0;
+
+    /**
+     * The pixel before the first one: opaque black.
+     */
+    private static final int START = 0xFF000000;
+
+    private QoiCodec()
+    {
+    }
+
+    static byte[] encode(final RgbaImage image)
+    {
+        final int[] pixels = image.getPixels();
+        // Worst case every pixel is a full RGBA op
+        final byte[] out = new byte[HEADER_SIZE + pixels.length * 5 + END.length];
+        ByteBuffer.wrap(out).put(MAGIC).putInt(image.getWidth()).putInt(image.getHeight()).put((byte) 4).put((byte) 0);
+        int position = HEADER_SIZE;
+
+        final int[] seen = new int[64];
+        int previous = START;
+        int run = 0;
+        for (int i = 0; i < pixels.length; i++)
+        {
+            final int pixel = pixels[i];
+            if (pixel == previous)
+            {
+                run++;
+                if (run == MAX_RUN || i == pixels.length - 1)
+                {
+                    out[position++] = (byte) (OP_RUN | (run - 1));
+                    run = 0;
+                }
+                continue;
+            }
+            if (run > 0)
+            {
+                out[position++] = (byte) (OP_RUN | (run - 1));
+                run = 0;
+            }
+
+            final int index = hash(pixel);
+            if (seen[index] == pixel)
+            {
+                out[position++] = (byte) (OP_INDEX | index);
+            }
+            else
+            {
+                seen[index] = pixel;
+                if ((pixel ^ previous) >>> 24 == 0)
+                {
+                    // Channel differences wrap around, as bytes
+                    final int dr = (byte) (pixel - previous);
+                    final int dg = (byte) ((pixel >> 8) - (previous >> 8));
+                    final int db = (byte) ((pixel >> 16) - (previous >> 16));
+                    final int drg = dr - dg;
+                    final int dbg = db - dg;
+                    if (dr >= -2 && dr <= 1 && dg >= -2 && dg <= 1 && db >= -2 && db <= 1)
+                    {
+                        out[position++] = (byte) (OP_DIFF | (dr + 2) << 4 | (dg + 2) << 2 | (db + 2));
+                    }
+                    else if (drg >= -8 && drg <= 7 && dg >= -32 && dg <= 31 && dbg >= -8 && dbg <= 7)
+                    {
+                        out[position++] = (byte) (OP_LUMA | (dg + 32));
+                        out[position++] = (byte) ((drg + 8) << 4 | (dbg + 8));
+                    }
+                    else
+                    {
+                        out[position++] = (byte) OP_RGB;
+                        out[position++] = (byte) pixel;
+                        out[position++] = (byte) (pixel >> 8);
+                        out[position++] = (byte) (pixel >> 16);
+                    }
+                }
+                else
+                {
+                    out[position++] = (byte) OP_RGBA;
+                    out[position++] = (byte) pixel;
+                    out[position++] = (byte) (pixel >> 8);
+                    out[position++] = (byte) (pixel >> 16);
+                    out[position++] = (byte) (pixel >>> 24);
+                }
+            }
+            previous = pixel;
+        }
+
+        System.arraycopy(END, 0, out, position, END.length);
+        return Arrays.copyOf(out, position + END.length);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code data} is not a 4-channel QOI image, or is truncated
+     */
+    static RgbaImage decode(final byte[] data)
+    {
+        if (data.length < HEADER_SIZE + END.length || !Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length))
+        {
+            throw new IllegalArgumentException("Not a QOI image");
+        }
+        final ByteBuffer header = ByteBuffer.wrap(data, MAGIC.length, HEADER_SIZE - MAGIC.length);
+        final int width = header.getInt();
+        final int height = header.getInt();
+        final int channels = header.get();
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE || channels != 4 && channels != 3)
+        {
+            throw new IllegalArgumentException("Invalid QOI header: " + width + "x" + height + ", " + channels + " channels");
+        }
+
+        final RgbaImage image = new RgbaImage(width, height);
+        final int[] pixels = image.getPixels();
+        final int end = data.length - END.length;
+        final int[] seen = new int[64];
+        int pixel = START;
+        int position = HEADER_SIZE;
+        for (int i = 0; i < pixels.length; i++)
+        {
+            if (position >= end)
+            {
+                throw new IllegalArgumentException("Truncated QOI image");
+            }
+            final int op = data[position++] & 0xFF;
+            if (op == OP_RGB)
+            {
+                pixel = (pixel & 0xFF000000) | (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8 | (data[position + 2] & 0xFF) << 16;
+                position += 3;
+            }
+            else if (op == OP_RGBA)
+            {
+                pixel = (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8 | (data[position + 2] & 0xFF) << 16 | (data[position + 3] & 0xFF) << 24;
+                position += 4;
+            }
+            else
+            {
+                switch (op & MASK_2)
+                {
+                    case OP_INDEX -> pixel = seen[op];
+                    case OP_DIFF -> pixel = add(pixel, ((op >> 4) & 3) - 2, ((op >> 2) & 3) - 2, (op & 3) - 2);
+                    case OP_LUMA ->
+                    {
+                        final int second = data[position++] & 0xFF;
+                        final int dg = (op & 0x3F) - 32;
+                        pixel = add(pixel, dg + (second >> 4) - 8, dg, dg + (second & 0x0F) - 8);
+                    }
+                    default ->
+                    {
+                        final int run = Math.min(op & 0x3F, pixels.length - 1 - i);
+                        Arrays.fill(pixels, i, i + run, pixel);
+                        i += run;
+                    }
+                }
+            }
+            seen[hash(pixel)] = pixel;
+            pixels[i] = pixel;
+        }
+        return image;
+    }
+
+    private static int add(final int pixel, final int dr, final int dg, final int db)
+    {
+        final int r = (pixel + dr) & 0xFF;
+        final int g = ((pixel >> 8) + dg) & 0xFF;
+        final int b = ((pixel >> 16) + db) & 0xFF;
+        return (pixel & 0xFF000000) | b << 16 | g << 8 | r;
+    }
+
+    private static int hash(final int pixel)
+    {
+        return ((pixel & 0xFF) * 3 + ((pixel >> 8) & 0xFF) * 5 + ((pixel >> 16) & 0xFF) * 7 + (pixel >>> 24) * 11) % 64;
+    }
+}
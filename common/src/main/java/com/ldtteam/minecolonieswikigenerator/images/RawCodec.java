@@ -0,0 +1,52 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Stores images uncompressed: the magic {@code RGBA}, the width and height as big-endian ints, then the pixels as
+ * RGBA bytes, row by row from the top. Costs nothing to write, at four bytes per pixel.
+ */
+final class RawCodec
+{
+    private static final byte[] MAGIC       = {'R', 'G', 'B', 'A'};
+    private static final int    HEADER_SIZE = 12;
+
+    private RawCodec()
+    {
+    }
+
+    static byte[] encode(final RgbaImage image)
+    {
+        final int[] pixels = image.getPixels();
+        final ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + pixels.length * 4);
+        out.put(MAGIC).putInt(image.getWidth()).putInt(image.getHeight());
+        // Little-endian ints hold the channels in RGBA order
+        out.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(pixels);
+        return out.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code data} is not a raw image, or its size does not match its header
+     */
+    static RgbaImage decode(final byte[] data)
+    {
+        if (data.length < HEADER_SIZE || !Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length))
+        {
+            throw new IllegalArgumentException("Not a raw RGBA image");
+        }
+        final ByteBuffer in = ByteBuffer.wrap(data);
+        in.position(MAGIC.length);
+        final int width = in.getInt();
+        final int height = in.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height * 4 != data.length - HEADER_SIZE)
+        {
+            throw new IllegalArgumentException("Raw RGBA image of " + data.length + " bytes does not match its size " + width + "x" + height);
+        }
+
+        final RgbaImage image = new RgbaImage(width, height);
+        in.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(image.getPixels());
+        return image;
+    }
+}
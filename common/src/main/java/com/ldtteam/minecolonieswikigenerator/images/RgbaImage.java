@@ -0,0 +1,66 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+/**
+ * A raw RGBA image held on the heap, independent of Minecraft's {@code NativeImage} and of any GL context.
+ *
+ * <p>Pixels are stored row by row, one {@code int} per pixel, packed the same way as
+ * {@code NativeImage.getPixelRGBA}: red in the lowest byte, then green, blue and alpha in the highest byte.
+ * This is the byte order of an RGBA framebuffer read back on a little-endian machine, so pixel data can be
+ * copied between the two without reordering channels.
+ */
+public final class RgbaImage
+{
+    private final int   width;
+    private final int   height;
+    private final int[] pixels;
+
+    /**
+     * Creates a fully transparent image.
+     */
+    public RgbaImage(final int width, final int height)
+    {
+        this(width, height, new int[width * height]);
+    }
+
+    /**
+     * Wraps existing pixel data without copying it.
+     */
+    public RgbaImage(final int width, final int height, final int[] pixels)
+    {
+        if (pixels.length != width * height)
+        {
+            throw new IllegalArgumentException("Expected " + width * height + " pixels for a " + width + "x" + height + " image, got " + pixels.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * The backing pixel array, row by row.
+     */
+    public int[] getPixels()
+    {
+        return pixels;
+    }
+
+    public int getPixel(final int x, final int y)
+    {
+        return pixels[y * width + x];
+    }
+
+    public void setPixel(final int x, final int y, final int rgba)
+    {
+        pixels[y * width + x] = rgba;
+    }
+}
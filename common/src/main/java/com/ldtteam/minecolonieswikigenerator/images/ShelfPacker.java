@@ -0,0 +1,114 @@
+package com.ldtteam.minecolonieswikigenerator.images;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Packs rectangles into fixed-size sheets with a shelf algorithm, as used for sprite-sheet atlases.
+ *
+ * <p>Rectangles are placed tallest first, left to right along horizontal shelves. Each rectangle goes onto the
+ * first shelf of the current sheet with room left at its end, or onto a new shelf below the last one, or onto a new
+ * sheet once the current one is full. Since the rectangles only get shorter, every shelf is as tall as its first
+ * rectangle and wastes little height. This runs in roughly linear time after the sort, and the result depends only
+ * on the sizes and their order, so the same input always gives the same layout. Instances are immutable and may be
+ * shared.
+ */
+public final class ShelfPacker
+{
+    private final int sheetWidth;
+    private final int sheetHeight;
+    private final int padding;
+
+    /**
+     * A packed rectangle: the index of its sheet and the position of its top left corner there.
+     */
+    public record Placement(
+        int sheet,
+        int x,
+        int y)
+    {
+    }
+
+    /**
+     * @param sheetWidth  the width of every sheet
+     * @param sheetHeight the height of every sheet
+     * @param padding     the transparent gap kept between rectangles, so scaled sprites do not bleed into each other
+     */
+    public ShelfPacker(final int sheetWidth, final int sheetHeight, final int padding)
+    {
+        this.sheetWidth = sheetWidth;
+        this.sheetHeight = sheetHeight;
+        this.padding = padding;
+    }
+
+    /**
+     * Packs the rectangles of the given sizes, ties in height keeping their order.
+     *
+     * @return the placement of every rectangle, in the order of {@code widths} and {@code heights}
+     * @throws IllegalArgumentException if a rectangle is empty or larger than a sheet
+     */
+    public Placement[] pack(final int[] widths, final int[] heights)
+    {
+        for (int i = 0; i < widths.length; i++)
+        {
+            if (widths[i] <= 0 || heights[i] <= 0 || widths[i] > sheetWidth || heights[i] > sheetHeight)
+            {
+                throw new IllegalArgumentException("Cannot pack a " + widths[i] + "x" + heights[i] + " rectangle into " + sheetWidth + "x" + sheetHeight + " sheets");
+            }
+        }
+
+        final Placement[] placements = new Placement[widths.length];
+        final List<Shelf> shelves = new ArrayList<>();
+        int sheet = 0;
+        int nextShelfY = 0;
+        final int[] order = IntStream.range(0, widths.length)
+            .boxed()
+            .sorted(Comparator.comparingInt((Integer index) -> heights[index]).reversed())
+            .mapToInt(Integer::intValue)
+            .toArray();
+        for (final int index : order)
+        {
+            final int width = widths[index];
+            final int height = heights[index];
+
+            Shelf shelf = null;
+            for (final Shelf candidate : shelves)
+            {
+                if (candidate.nextX + width <= sheetWidth)
+                {
+                    shelf = candidate;
+                    break;
+                }
+            }
+            if (shelf == null)
+            {
+                if (nextShelfY + height > sheetHeight)
+                {
+                    sheet++;
+                    shelves.clear();
+                    nextShelfY = 0;
+                }
+                shelf = new Shelf(nextShelfY);
+                shelves.add(shelf);
+                nextShelfY += height + padding;
+            }
+
+            placements[index] = new Placement(sheet, shelf.nextX, shelf.y);
+            shelf.nextX += width + padding;
+        }
+        return placements;
+    }
+
+    private static final class Shelf
+    {
+        private final int y;
+        private       int nextX;
+
+        private Shelf(final int y)
+        {
+            this.y = y;
+        }
+    }
+}
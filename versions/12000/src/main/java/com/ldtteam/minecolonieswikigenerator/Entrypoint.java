@@ -12,12 +12,15 @@ import net.minecraft.world.level.WorldDataConfiguration;
 import net.minecraft.world.level.levelgen.WorldOptions;
 import net.minecraft.world.level.levelgen.presets.WorldPresets;
 import net.minecraft.core.registries.Registries;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
 import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientReloadListenersEvent;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.DistExecutor;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import net.minecraftforge.fml.loading.FMLPaths;
 
 import java.nio.file.Files;
@@ -29,12 +32,18 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
 {
     private static final String DATAGEN_WORLD = "datagen_world";
     private final AtomicBoolean worldCreationTriggered = new AtomicBoolean(false);
+    private RenderTakeover takeover;
 
     public Entrypoint()
     {
         super();
-        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> this::initialize);
-        MinecraftForge.EVENT_BUS.register(this);
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> {
+            this.initialize();
+            this.takeover = RenderTakeover.fromEnvironment();
+            FMLJavaModLoadingContext.get().getModEventBus().addListener(this::onRegisterReloadListeners);
+            MinecraftForge.EVENT_BUS.register(this);
+        });
+        DistExecutor.unsafeRunWhenOn(Dist.DEDICATED_SERVER, () -> ServerEntrypoint::new);
     }
 
     @SubscribeEvent
@@ -47,9 +56,24 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
 
         final Minecraft mc = Minecraft.getInstance();
 
+        // Wait for the initial resource load, so generators that need no level can start before the world is created
+        if (mc.getOverlay() != null)
+        {
+            return;
+        }
+
+        // Without a generator that needs a level, skip world creation entirely
+        if (!this.requiresLevel())
+        {
+            this.tick();
+            return;
+        }
+
         // If no datagen world exists yet, create it and wait for it to load
         if (mc.level == null && worldCreationTriggered.compareAndSet(false, true))
         {
+            this.tickBeforeLevel();
+
             final Path worldPath = mc.getLevelSource().getBaseDir().resolve(DATAGEN_WORLD);
             if (!Files.exists(worldPath))
             {
@@ -73,13 +97,26 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
             return;
         }
 
-        // Wait for the game to be fully loaded
+        // Wait for the game to be fully loaded, meanwhile advancing the generators that need no level
         if (mc.level == null || mc.player == null)
         {
+            this.tickBeforeLevel();
             return;
         }
 
         this.tick();
+        if (takeover != null)
+        {
+            takeover.update(getManager());
+        }
+    }
+
+    /**
+     * Lets watch mode know when resources were reloaded, e.g. by F3+T after editing a resource pack.
+     */
+    private void onRegisterReloadListeners(final RegisterClientReloadListenersEvent event)
+    {
+        event.registerReloadListener((ResourceManagerReloadListener) resourceManager -> this.onResourcesReloaded());
     }
 
     @Override
@@ -97,20 +134,20 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
     @Override
     protected void getGenerators(final DataGeneratorCollector<ClientLevel> collector)
     {
-        collector.add(true, new BlockDataGenerator());
+        collector.add(true, new BlockDataGenerator<>());
         collector.add(true, new BlockImageDataGenerator());
         collector.add(true, new BlockStateDataGenerator());
-        collector.add(true, new CitizenNamesDataGenerator());
-        collector.add(true, new ConfigurationDataGenerator());
-        collector.add(true, new CrafterRecipeDataGenerator());
-        collector.add(true, new ItemDataGenerator());
+        collector.add(true, new CitizenNamesDataGenerator<>());
+        collector.add(true, new ConfigurationDataGenerator<>());
+        collector.add(true, new CrafterRecipeDataGenerator<>());
+        collector.add(true, new ItemDataGenerator<>());
         collector.add(true, new ItemImageDataGenerator());
-        collector.add(true, new ItemTagDataGenerator());
+        collector.add(true, new ItemTagDataGenerator<>());
         collector.add(true, new LanguageDataGenerator());
-        collector.add(true, new RecipeDataGenerator());
-        collector.add(true, new ResearchDataGenerator(ResearchObjectType.RESEARCH));
-        collector.add(true, new ResearchDataGenerator(ResearchObjectType.RESEARCH_TREE));
-        collector.add(true, new ResearchDataGenerator(ResearchObjectType.RESEARCH_EFFECT));
+        collector.add(true, new RecipeDataGenerator<>());
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH));
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH_TREE));
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH_EFFECT));
         //collector.add(true, new SchematicImageDataGenerator());
         //collector.add(true, new SchematicIndexDataGenerator());
     }
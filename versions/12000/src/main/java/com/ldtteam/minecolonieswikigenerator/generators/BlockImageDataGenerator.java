@@ -1,8 +1,12 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
+import com.ldtteam.minecolonieswikigenerator.images.ContentBounds;
+import com.ldtteam.minecolonieswikigenerator.images.ImageEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.ImageKernels;
+import com.ldtteam.minecolonieswikigenerator.images.PngEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.RgbaImage;
 import com.mojang.blaze3d.pipeline.TextureTarget;
 import com.mojang.blaze3d.platform.Lighting;
-import com.mojang.blaze3d.platform.NativeImage;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexSorting;
@@ -16,11 +20,16 @@ import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.blockentity.BlockEntityRenderDispatcher;
 import net.minecraft.client.renderer.blockentity.BlockEntityRenderer;
 import net.minecraft.client.renderer.texture.*;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.inventory.InventoryMenu;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.EntityBlock;
+import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.client.model.data.ModelData;
@@ -29,27 +38,57 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.joml.Matrix4f;
 
-import java.io.IOException;
 import java.nio.file.Path;
-import java.util.function.Consumer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Generates PNG images for all block states, including BlockEntity rendering.
  * This renders BlockEntity components like the book on enchanting tables.
  * <p>
- * This generator must run on the render thread since it requires OpenGL context.
+ * Rendering must run on the render thread since it requires OpenGL context; cropping and encoding do not.
+ * <p>
+ * Images are named after the model location of their state, but many states look the same, e.g. the waterlogged
+ * variants of a block. Only the first state of each look is rendered, the others are written to an {@link AliasTable}.
  */
-public class BlockImageDataGenerator extends LongRunningDataGenerator<ClientLevel>
+public class BlockImageDataGenerator extends DataGenerator<ClientLevel>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
     private static final int IMAGE_SIZE = 300;
     private static final int BATCH_SIZE = 10;
 
-    public BlockImageDataGenerator()
-    {
-        super(BATCH_SIZE);
-    }
+    /**
+     * How many render keys the render thread resolves per task, so resolving them never holds up a frame for long.
+     */
+    private static final int KEY_CHUNK_SIZE = 256;
+
+    /**
+     * The targets listed by the last {@link #listTargets} call, to look up the index of a target.
+     */
+    private TargetContext<ClientLevel> listed;
+
+    /**
+     * The block state to render for each target, by target index, resolved by the last {@link #listTargets} call.
+     */
+    private List<BlockState> states = List.of();
+
+    /**
+     * The states that render like an earlier state, resolved by the last {@link #listTargets} call.
+     */
+    private AliasTable aliases;
+
+    /**
+     * Reads the renders back while the next block renders, so post-processing a block overlaps the render of the next.
+     */
+    private final PixelReadback readback = new PixelReadback(2);
+
+    /**
+     * Writes the images as separate files or into per-namespace atlases.
+     */
+    private final ImageOutput output = ImageOutput.fromEnvironment(ImageEncoder.fromEnvironment(PngEncoder.fromEnvironment().withPalette()), IMAGE_SIZE);
 
     @Override
     public String getName()
@@ -64,62 +103,118 @@ public class BlockImageDataGenerator extends LongRunningDataGenerator<ClientLeve
     }
 
     @Override
-    protected void queueTasks(final Consumer<Runnable> register, final DataGeneratorOptions<ClientLevel> options)
+    public boolean dependsOnResources()
     {
-        ForgeRegistries.BLOCKS.getEntries().forEach(entry -> {
-            if (options.isNamespaceExcluded(entry.getKey().location().getNamespace()))
-            {
-                return;
-            }
-            final Block block = entry.getValue();
-            final ResourceLocation blockId = entry.getKey().location();
+        return true;
+    }
 
-            block.getStateDefinition().getPossibleStates().forEach(state -> register.accept(() -> generateBlockImage(options, blockId, state)));
-        });
+    @Override
+    public Integer batchSize()
+    {
+        return BATCH_SIZE;
     }
 
-    private void generateBlockImage(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation blockId, final BlockState state)
+    @Override
+    public void onBatchesDrained()
     {
-        final String identifier = BlockStateDataGenerator.getBlockStateIdentifier(state);
-        try
-        {
-            final byte[] imageData = renderBlockStateToImage(state, IMAGE_SIZE, options.getLevel());
-            if (imageData != null)
+        readback.destroy();
+        RenderTargetPool.destroyAll();
+    }
+
+    @Override
+    public void listTargets(final TargetContext<ClientLevel> context)
+    {
+        // Only the registry is read here, it is frozen once the game has loaded and safe to iterate from any thread,
+        // as is building the model location of a state
+        final List<Candidate> candidates = new ArrayList<>();
+        ForgeRegistries.BLOCKS.getEntries().forEach(entry -> {
+            final ResourceLocation blockId = entry.getKey().location();
+            if (!context.includesNamespace(blockId.getNamespace()))
             {
-                options.saveFile(blockId.getNamespace(), blockId.withSuffix("/" + identifier).getPath(), "png", imageData);
+                return;
             }
-            else
+
+            for (final BlockState state : entry.getValue().getStateDefinition().getPossibleStates())
             {
-                LOGGER.warn("Failed to render image for block state: {} ({})", blockId, identifier);
+                final String path = blockId.getPath() + "/" + BlockStateDataGenerator.getBlockStateIdentifier(state);
+                if (context.includes(blockId.getNamespace(), path))
+                {
+                    candidates.add(new Candidate(blockId.getNamespace(), path, state));
+                }
             }
+        });
+
+        // Model lookups and block colours belong to the render thread, which resolves the keys a chunk per task, so
+        // frames are drawn in between; each chunk is waited for before the next is handed over
+        final Minecraft mc = Minecraft.getInstance();
+        final List<RenderKey> keys = new ArrayList<>(candidates.size());
+        for (int start = 0; start < candidates.size(); start += KEY_CHUNK_SIZE)
+        {
+            final List<Candidate> chunk = candidates.subList(start, Math.min(start + KEY_CHUNK_SIZE, candidates.size()));
+            mc.executeBlocking(() -> chunk.forEach(candidate -> keys.add(RenderKey.of(candidate.state(), mc))));
         }
-        catch (Exception e)
+
+        final List<BlockState> targetStates = new ArrayList<>();
+        final AliasTable aliasTable = new AliasTable(context);
+        for (int i = 0; i < candidates.size(); i++)
         {
-            LOGGER.error("Error generating image for block state: {} ({})", blockId, identifier, e);
+            final Candidate candidate = candidates.get(i);
+            // Indices count up from 0, so a newly listed target takes the next slot
+            if (aliasTable.add(candidate.namespace(), candidate.path(), keys.get(i))
+                && context.add(candidate.namespace(), candidate.path()) == targetStates.size())
+            {
+                targetStates.add(candidate.state());
+            }
         }
+        LOGGER.debug("{} block states render as {} images", targetStates.size() + aliasTable.size(), targetStates.size());
+        this.listed = context;
+        this.states = targetStates;
+        this.aliases = aliasTable;
+        output.setTargets(context);
+    }
+
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<ClientLevel> options)
+    {
+        final StageTimer timer = options.getStageTimer();
+        // Only the render and readback need the render thread, the crop, encode and write run on a worker
+        return continueAsync(renderBlockState(states.get(listed.indexOf(target)), IMAGE_SIZE, options.getLevel(), timer, readback),
+            image -> output.save(target, crop(image, IMAGE_SIZE, timer), options));
+    }
+
+    @Override
+    public CompletableFuture<Void> onTargetsCompleted(final DataGeneratorOptions<ClientLevel> options)
+    {
+        return CompletableFuture.allOf(output.writeAtlases(options), aliases.write(options));
     }
 
     /**
-     * Renders a block state to a PNG image, cropped to content bounds.
+     * Renders a block state into a framebuffer and queues its readback.
      * This version also renders any associated BlockEntity (like the book on enchanting tables).
      *
-     * @param state   the block state to render
-     * @param maxSize the maximum size of the output image (width and height)
-     * @param level   the client level, used for BlockEntity rendering
-     * @return the rendered image as PNG byte data, or null if rendering failed
+     * @param state    the block state to render
+     * @param maxSize  the maximum size of the output image (width and height)
+     * @param level    the client level, used for BlockEntity rendering
+     * @param timer    the timer to report the render stages to
+     * @param readback the readback ring to read the framebuffer through
+     * @return the uncropped render, completed on the render thread once its readback finishes
      */
-    public static byte[] renderBlockStateToImage(final BlockState state, final int maxSize, final ClientLevel level)
+    private static CompletableFuture<RgbaImage> renderBlockState(
+        final BlockState state,
+        final int maxSize,
+        final ClientLevel level,
+        final StageTimer timer,
+        final PixelReadback readback)
     {
+        long time = System.nanoTime();
+
         // Render at 4x resolution for better antialiasing through supersampling
         final int renderSize = maxSize * 4;
 
         final Minecraft mc = Minecraft.getInstance();
 
-        // Create a framebuffer to render into
-        final TextureTarget renderTarget = new TextureTarget(renderSize, renderSize, true, Minecraft.ON_OSX);
-        renderTarget.setClearColor(0.0f, 0.0f, 0.0f, 0.0f);
-        renderTarget.clear(Minecraft.ON_OSX);
-        renderTarget.bindWrite(true);
+        // Take a cleared framebuffer from the pool to render into
+        final TextureTarget renderTarget = RenderTargetPool.acquire(renderSize, renderSize, true, 0.0f, 0.0f, 0.0f, 0.0f);
 
 
         // Set up the projection matrix for isometric-style rendering
@@ -179,87 +274,34 @@ public class BlockImageDataGenerator extends LongRunningDataGenerator<ClientLeve
             bufferSource.endBatch();
 
             poseStack.popPose();
+            time = timer.record(RenderStage.RENDER, time);
 
-            // Read the pixels from the framebuffer
-            try (final NativeImage fullImage = new NativeImage(renderSize, renderSize, false))
-            {
-                RenderSystem.bindTexture(renderTarget.getColorTextureId());
-                fullImage.downloadTexture(0, false);
-                // Don't flip - the projection and scale already handle orientation
-
-                // Find the content bounds (non-transparent pixels)
-                int minX = renderSize, minY = renderSize, maxX = 0, maxY = 0;
-                for (int y = 0; y < renderSize; y++)
-                {
-                    for (int x = 0; x < renderSize; x++)
-                    {
-                        final int pixel = fullImage.getPixelRGBA(x, y);
-                        final int alpha = (pixel >> 24) & 0xFF;
-                        if (alpha > 0)
-                        {
-                            minX = Math.min(minX, x);
-                            minY = Math.min(minY, y);
-                            maxX = Math.max(maxX, x);
-                            maxY = Math.max(maxY, y);
-                        }
-                    }
-                }
-
-                // Handle empty images (no visible content)
-                if (maxX < minX || maxY < minY)
-                {
-                    return fullImage.asByteArray();
-                }
-
-                // Calculate crop dimensions (make it square based on largest dimension)
-                final int contentWidth = maxX - minX + 1;
-                final int contentHeight = maxY - minY + 1;
-                final int cropSize = Math.max(contentWidth, contentHeight);
-
-                // Center the content in the crop area
-                final int centerX = (minX + maxX) / 2;
-                final int centerY = (minY + maxY) / 2;
-                final int cropMinX = Math.max(0, centerX - cropSize / 2);
-                final int cropMinY = Math.max(0, centerY - cropSize / 2);
-
-                // Create final image at target size
-                try (final NativeImage finalImage = new NativeImage(maxSize, maxSize, false))
-                {
-                    // Calculate scaling factor to fit content into maxSize
-                    final float downscale = (float) maxSize / cropSize;
-
-                    for (int y = 0; y < maxSize; y++)
-                    {
-                        for (int x = 0; x < maxSize; x++)
-                        {
-                            // Map destination pixel to source position with bilinear interpolation
-                            final float srcXf = cropMinX + (x / downscale);
-                            final float srcYf = cropMinY + (y / downscale);
-
-                            finalImage.setPixelRGBA(x, y, sampleBilinear(fullImage, srcXf, srcYf, renderSize));
-                        }
-                    }
-
-                    return finalImage.asByteArray();
-                }
-            }
-        }
-        catch (IOException e)
-        {
-            LOGGER.error("Error rendering block state image", e);
-            return null;
+            // Queue the readback, its pixels are mapped while a later block renders
+            final CompletableFuture<RgbaImage> pixels = readback.submit(renderTarget, renderSize, renderSize);
+            timer.record(RenderStage.READBACK, time);
+            return pixels;
         }
         finally
         {
             // Clean up
             RenderSystem.enableDepthTest();
             RenderSystem.disableBlend();
-            renderTarget.unbindWrite();
-            Minecraft.getInstance().getMainRenderTarget().bindWrite(true);
-            renderTarget.destroyBuffers();
+            RenderTargetPool.release(renderTarget);
         }
     }
 
+    /**
+     * Crops a rendered block to its content bounds (non-transparent pixels), keeping empty images as they are.
+     */
+    private static RgbaImage crop(final RgbaImage image, final int maxSize, final StageTimer timer)
+    {
+        final long time = System.nanoTime();
+        final ContentBounds bounds = ImageKernels.findContentBounds(image);
+        final RgbaImage cropped = bounds == null ? image : ImageKernels.cropToSquare(image, bounds, maxSize);
+        timer.record(RenderStage.POST_PROCESS, time);
+        return cropped;
+    }
+
     /**
      * Resets all animated textures in the block atlas to frame 0.
      * This ensures every block is rendered at the same animation frame regardless of game time.
@@ -354,51 +396,118 @@ public class BlockImageDataGenerator extends LongRunningDataGenerator<ClientLeve
     }
 
     /**
-     * Samples an image using bilinear interpolation for smoother downscaling.
+     * A block state included by the run's filter, listed before its render key is known.
      */
-    private static int sampleBilinear(final NativeImage image, final float x, final float y, final int renderSize)
+    private record Candidate(
+        String namespace,
+        String path,
+        BlockState state)
     {
-        final int x0 = (int) Math.floor(x);
-        final int y0 = (int) Math.floor(y);
-        final int x1 = x0 + 1;
-        final int y1 = y0 + 1;
+    }
 
-        final float xFrac = x - x0;
-        final float yFrac = y - y0;
+    /**
+     * What a block state looks like when rendered by {@link #renderBlockState}: the quads of every render type of its
+     * model and the tint applied to them, so states with equal keys render the same image. Block entities may draw anything, so states
+     * of entity blocks, and of blocks not drawn through their model, are only equal to themselves. Keys read models
+     * and block colours, so they are only built on the render thread.
+     *
+     * @param identity the state itself when its quads do not decide its look, otherwise {@code null}
+     */
+    private record RenderKey(
+        BlockState identity,
+        List<Layer> layers,
+        int tint)
+    {
+        private static final RenderKey INVISIBLE = new RenderKey(null, List.of(), -1);
 
-        final int p00 = getPixelSafe(image, x0, y0, renderSize);
-        final int p10 = getPixelSafe(image, x1, y0, renderSize);
-        final int p01 = getPixelSafe(image, x0, y1, renderSize);
-        final int p11 = getPixelSafe(image, x1, y1, renderSize);
+        static RenderKey of(final BlockState state, final Minecraft mc)
+        {
+            // Entity blocks are checked first, most are INVISIBLE and drawn by their block entity renderer alone
+            if (state.getBlock() instanceof EntityBlock)
+            {
+                return new RenderKey(state, List.of(), -1);
+            }
+            if (state.getRenderShape() == RenderShape.INVISIBLE)
+            {
+                return INVISIBLE;
+            }
+            if (state.getRenderShape() != RenderShape.MODEL)
+            {
+                return new RenderKey(state, List.of(), -1);
+            }
 
-        final int r = bilinearInterpolateChannel(p00, p10, p01, p11, xFrac, yFrac, 0);
-        final int g = bilinearInterpolateChannel(p00, p10, p01, p11, xFrac, yFrac, 8);
-        final int b = bilinearInterpolateChannel(p00, p10, p01, p11, xFrac, yFrac, 16);
-        final int a = bilinearInterpolateChannel(p00, p10, p01, p11, xFrac, yFrac, 24);
+            try
+            {
+                // Same render types and quads as the block renderer asks for, including the seed it uses for random
+                // model variants
+                final BakedModel model = mc.getBlockRenderer().getBlockModel(state);
+                final RandomSource random = RandomSource.create();
+                final List<Layer> layers = new ArrayList<>();
+                boolean tinted = false;
+                for (final RenderType renderType : model.getRenderTypes(state, RandomSource.create(42L), ModelData.EMPTY))
+                {
+                    final List<Quad> quads = new ArrayList<>();
+                    for (final Direction direction : Direction.values())
+                    {
+                        random.setSeed(42L);
+                        model.getQuads(state, direction, random, ModelData.EMPTY, renderType).forEach(quad -> quads.add(new Quad(quad)));
+                    }
+                    random.setSeed(42L);
+                    model.getQuads(state, null, random, ModelData.EMPTY, renderType).forEach(quad -> quads.add(new Quad(quad)));
 
-        return (a << 24) | (b << 16) | (g << 8) | r;
+                    tinted |= quads.stream().anyMatch(quad -> quad.tintIndex() != -1);
+                    layers.add(new Layer(renderType, quads));
+                }
+
+                // The renderer tints every tinted quad with the colour of tint index 0
+                return new RenderKey(null, layers, tinted ? mc.getBlockColors().getColor(state, null, null, 0) : -1);
+            }
+            catch (Exception e)
+            {
+                LOGGER.debug("Could not read the model of {}, rendering it on its own: {}", state, e.getMessage());
+                return new RenderKey(state, List.of(), -1);
+            }
+        }
     }
 
-    private static int getPixelSafe(final NativeImage image, final int x, final int y, final int size)
+    /**
+     * The quads a model draws with one of its render types. Render types are shared instances, so they compare by
+     * identity.
+     */
+    private record Layer(
+        RenderType renderType,
+        List<Quad> quads)
     {
-        if (x < 0 || x >= size || y < 0 || y >= size)
-        {
-            return 0;
-        }
-        return image.getPixelRGBA(x, y);
     }
 
-    private static int bilinearInterpolateChannel(final int p00, final int p10, final int p01, final int p11, final float xFrac, final float yFrac, final int shift)
+    /**
+     * A quad compared by content, since models may build new but equal quads for every state.
+     */
+    private record Quad(
+        int[] vertices,
+        int tintIndex,
+        Direction direction,
+        boolean shade)
     {
-        final int c00 = (p00 >> shift) & 0xFF;
-        final int c10 = (p10 >> shift) & 0xFF;
-        final int c01 = (p01 >> shift) & 0xFF;
-        final int c11 = (p11 >> shift) & 0xFF;
+        Quad(final BakedQuad quad)
+        {
+            this(quad.getVertices(), quad.getTintIndex(), quad.getDirection(), quad.isShade());
+        }
 
-        final float top = c00 + xFrac * (c10 - c00);
-        final float bottom = c01 + xFrac * (c11 - c01);
-        final float result = top + yFrac * (bottom - top);
+        @Override
+        public boolean equals(final Object obj)
+        {
+            return obj instanceof Quad other
+                && Arrays.equals(vertices, other.vertices)
+                && tintIndex == other.tintIndex
+                && direction == other.direction
+                && shade == other.shade;
+        }
 
-        return Math.min(255, Math.max(0, Math.round(result)));
+        @Override
+        public int hashCode()
+        {
+            return (Arrays.hashCode(vertices) * 31 + tintIndex) * 31 + direction.ordinal() * 2 + (shade ? 1 : 0);
+        }
     }
 }
@@ -12,20 +12,15 @@ import net.minecraft.world.level.block.state.properties.EnumProperty;
 import net.minecraft.world.level.block.state.properties.IntegerProperty;
 import net.minecraft.world.level.block.state.properties.Property;
 import net.minecraftforge.registries.ForgeRegistries;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates JSON data for all block states.
  */
 public class BlockStateDataGenerator extends DataGenerator<ClientLevel>
 {
-    private static final Logger LOGGER = LogManager.getLogger();
-
     @Override
     public String getName()
     {
@@ -39,30 +34,28 @@ public class BlockStateDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public boolean requiresLevel()
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting block states data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
+        return false;
+    }
 
-            ForgeRegistries.BLOCKS.getEntries().forEach(entry -> {
-                if (options.isNamespaceExcluded(entry.getKey().location().getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    generateBlockStatesData(options, entry.getKey().location(), entry.getValue());
-                    count.incrementAndGet();
-                }
-                catch (Exception e)
-                {
-                    LOGGER.error("Error generating data for block states: {}", entry.getKey().location(), e);
-                }
-            });
+    @Override
+    public void listTargets(final TargetContext<ClientLevel> context)
+    {
+        for (final ResourceLocation id : ForgeRegistries.BLOCKS.getKeys())
+        {
+            if (context.includes(id.getNamespace(), id.getPath()))
+            {
+                context.add(id.getNamespace(), id.getPath());
+            }
+        }
+    }
 
-            LOGGER.info("Block states data generation complete. Generated {} files.", count.get());
-        });
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<ClientLevel> options)
+    {
+        final ResourceLocation id = new ResourceLocation(target.namespace(), target.path());
+        return runAsync(() -> generateBlockStatesData(options, id, ForgeRegistries.BLOCKS.getValue(id)));
     }
 
     private void generateBlockStatesData(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation id, final Block block) throws Exception
@@ -4,7 +4,6 @@ import com.electronwill.nightconfig.core.UnmodifiableConfig;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.util.GsonHelper;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.fml.ModList;
@@ -19,7 +18,6 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -27,10 +25,12 @@ import java.util.regex.Pattern;
 /**
  * Generates JSON data for all configuration options.
  */
-public class ConfigurationDataGenerator extends DataGenerator<ClientLevel>
+public class ConfigurationDataGenerator<L> extends DataGenerator<L>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private static final String CONFIGURATION_PATH = "configuration";
+
     private static final String VALUE_CHILD_TYPE_CATEGORY = "category";
     private static final String VALUE_CHILD_TYPE_CONFIG   = "config";
 
@@ -42,6 +42,11 @@ public class ConfigurationDataGenerator extends DataGenerator<ClientLevel>
     private static final Pattern PATTERN_NUMBER_BOUND_RANGE = Pattern.compile("^.*Range: ([<>]) ([\\d\\-,.]+).*$", Pattern.DOTALL);
     private static final Pattern PATTERN_ENUM_VALUES        = Pattern.compile("^.*Allowed Values: (.*)$");
 
+    /**
+     * The configuration values collected by the last {@link #listTargets} call, keyed by mod id.
+     */
+    private Map<String, Map<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>>> configuration = Map.of();
+
     @Override
     public String getName()
     {
@@ -55,15 +60,22 @@ public class ConfigurationDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public boolean requiresLevel()
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting configuration data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
-
-            final Map<String, Map<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>>> fullConfiguration = new LinkedHashMap<>();
+        return false;
+    }
 
-            ConfigTracker.INSTANCE.configSets().values().stream().flatMap(Collection::stream).filter(config -> !options.isNamespaceExcluded(config.getModId()) && !ALWAYS_EXCLUDED_MODS.contains(config.getModId())).forEach(config -> {
+    @Override
+    public void listTargets(final TargetContext<L> context)
+    {
+        final Map<String, Map<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>>> fullConfiguration = new LinkedHashMap<>();
+
+        ConfigTracker.INSTANCE.configSets()
+            .values()
+            .stream()
+            .flatMap(Collection::stream)
+            .filter(config -> !ALWAYS_EXCLUDED_MODS.contains(config.getModId()) && context.includes(config.getModId(), CONFIGURATION_PATH))
+            .forEach(config -> {
                 if (config.getSpec() instanceof ForgeConfigSpec configSpec)
                 {
                     collectConfig(new LinkedList<>(), configSpec.getSpec(), (key, valueSpec) -> {
@@ -74,46 +86,47 @@ public class ConfigurationDataGenerator extends DataGenerator<ClientLevel>
                     });
                 }
             });
+        this.configuration = fullConfiguration;
+
+        for (final String modId : fullConfiguration.keySet())
+        {
+            context.add(modId, CONFIGURATION_PATH);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        return runAsync(() -> generateConfigurationData(options, target.namespace(), configuration.get(target.namespace())));
+    }
+
+    private void generateConfigurationData(
+        final DataGeneratorOptions<L> options,
+        final String modId,
+        final Map<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>> configurationTypes) throws IOException
+    {
+        final JsonObject configurationJson = new JsonObject();
+        configurationJson.addProperty("name", ModList.get().getMods().stream().filter(f -> f.getModId().equals(modId)).findFirst().map(IModInfo::getDisplayName).orElse(modId));
 
-            for (final Map.Entry<String, Map<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>>> modConfiguration : fullConfiguration.entrySet())
+        final JsonArray configurationTypesJson = new JsonArray();
+        for (final Map.Entry<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>> configurationType : configurationTypes.entrySet())
+        {
+            final JsonObject configurationTypeJson = new JsonObject();
+            configurationTypeJson.addProperty("type", configurationType.getKey().toString());
+
+            final JsonArray configurationTypeValuesJson = new JsonArray();
+            for (final Map.Entry<LinkedList<String>, ForgeConfigSpec.ValueSpec> configurationTypeValue : configurationType.getValue().entrySet())
             {
-                final String modId = modConfiguration.getKey();
-                final Map<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>> configurationTypes = modConfiguration.getValue();
-                try
-                {
-                    final JsonObject configurationJson = new JsonObject();
-                    configurationJson.addProperty("name",
-                        ModList.get().getMods().stream().filter(f -> f.getModId().equals(modId)).findFirst().map(IModInfo::getDisplayName).orElse(modId));
-
-                    final JsonArray configurationTypesJson = new JsonArray();
-                    for (final Map.Entry<ModConfig.Type, Map<LinkedList<String>, ForgeConfigSpec.ValueSpec>> configurationType : configurationTypes.entrySet())
-                    {
-                        final JsonObject configurationTypeJson = new JsonObject();
-                        configurationTypeJson.addProperty("type", configurationType.getKey().toString());
-
-                        final JsonArray configurationTypeValuesJson = new JsonArray();
-                        for (final Map.Entry<LinkedList<String>, ForgeConfigSpec.ValueSpec> configurationTypeValue : configurationType.getValue().entrySet())
-                        {
-                            collectValuesJson(configurationTypeValue.getKey(), configurationTypeValue.getValue(), configurationTypeValuesJson);
-                        }
-                        configurationTypeJson.add("values", configurationTypeValuesJson);
-
-                        configurationTypesJson.add(configurationTypeJson);
-                    }
-
-                    configurationJson.add("types", configurationTypesJson);
-
-                    options.saveJsonFile(modId, "configuration", configurationJson);
-                    count.incrementAndGet();
-                }
-                catch (IOException e)
-                {
-                    LOGGER.error("Error generating data for configuration: {}", modId, e);
-                }
+                collectValuesJson(configurationTypeValue.getKey(), configurationTypeValue.getValue(), configurationTypeValuesJson);
             }
+            configurationTypeJson.add("values", configurationTypeValuesJson);
 
-            LOGGER.info("Configuration generation complete. Generated {} files.", count.get());
-        });
+            configurationTypesJson.add(configurationTypeJson);
+        }
+
+        configurationJson.add("types", configurationTypesJson);
+
+        options.saveJsonFile(modId, CONFIGURATION_PATH, configurationJson);
     }
 
     private void collectConfig(final LinkedList<String> path, final UnmodifiableConfig config, final BiConsumer<LinkedList<String>, ForgeConfigSpec.ValueSpec> consumer)
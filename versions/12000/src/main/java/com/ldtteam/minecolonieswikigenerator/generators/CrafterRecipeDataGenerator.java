@@ -1,25 +1,22 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.resources.FileToIdConverter;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.Resource;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates JSON data for all crafter recipes.
  */
-public class CrafterRecipeDataGenerator extends DataGenerator<ClientLevel>
+public class CrafterRecipeDataGenerator<L> extends DataGenerator<L>
 {
-    private static final Logger LOGGER = LogManager.getLogger();
+    private static final FileToIdConverter CRAFTER_RECIPES = FileToIdConverter.json("crafterrecipes");
 
     @Override
     public String getName()
@@ -34,34 +31,31 @@ public class CrafterRecipeDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public void listTargets(final TargetContext<L> context)
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting crafter recipes data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
+        for (final ResourceLocation file : CRAFTER_RECIPES.listMatchingResources(getResourceManager()).keySet())
+        {
+            final ResourceLocation id = CRAFTER_RECIPES.fileToId(file);
+            if (context.includes(id.getNamespace(), id.getPath()))
+            {
+                context.add(id.getNamespace(), id.getPath());
+            }
+        }
+    }
 
-            final FileToIdConverter crafterRecipes = FileToIdConverter.json("crafterrecipes");
-            crafterRecipes.listMatchingResources(Minecraft.getInstance().getSingleplayerServer().getResourceManager()).forEach((key, value) -> {
-                if (options.isNamespaceExcluded(crafterRecipes.fileToId(key).getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    generateCrafterRecipeData(options, crafterRecipes.fileToId(key), value);
-                    count.incrementAndGet();
-                }
-                catch (Exception e)
-                {
-                    LOGGER.error("Error generating data for crafter recipes: {}", key, e);
-                }
-            });
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        final ResourceLocation id = new ResourceLocation(target.namespace(), target.path());
+        return runAsync(() -> generateCrafterRecipeData(options, id, getResourceManager().getResourceOrThrow(CRAFTER_RECIPES.idToFile(id))));
+    }
 
-            LOGGER.info("Crafter recipes data generation complete. Generated {} files.", count.get());
-        });
+    private static ResourceManager getResourceManager()
+    {
+        return ServerLifecycleHooks.getCurrentServer().getResourceManager();
     }
 
-    private void generateCrafterRecipeData(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation crafterRecipeId, final Resource resource) throws IOException
+    private void generateCrafterRecipeData(final DataGeneratorOptions<L> options, final ResourceLocation crafterRecipeId, final Resource resource) throws IOException
     {
         try (final InputStream stream = resource.open())
         {
@@ -5,7 +5,6 @@ import com.google.gson.JsonObject;
 import com.minecolonies.api.items.IMinecoloniesFoodItem;
 import com.minecolonies.core.blocks.MinecoloniesCropBlock;
 import com.minecolonies.core.items.ItemCrop;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.food.FoodProperties;
@@ -19,12 +18,11 @@ import org.apache.logging.log4j.Logger;
 import java.lang.reflect.Field;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates JSON data for all registered items.
  */
-public class ItemDataGenerator extends DataGenerator<ClientLevel>
+public class ItemDataGenerator<L> extends DataGenerator<L>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -41,33 +39,31 @@ public class ItemDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public boolean requiresLevel()
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting items data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
+        return false;
+    }
 
-            ForgeRegistries.ITEMS.getEntries().forEach(entry -> {
-                if (options.isNamespaceExcluded(entry.getKey().location().getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    generateItemData(options, entry.getKey().location(), entry.getValue());
-                    count.incrementAndGet();
-                }
-                catch (Exception e)
-                {
-                    LOGGER.error("Error generating data for item: {}", entry.getKey().location(), e);
-                }
-            });
+    @Override
+    public void listTargets(final TargetContext<L> context)
+    {
+        for (final ResourceLocation id : ForgeRegistries.ITEMS.getKeys())
+        {
+            if (context.includes(id.getNamespace(), id.getPath()))
+            {
+                context.add(id.getNamespace(), id.getPath());
+            }
+        }
+    }
 
-            LOGGER.info("Items data generation complete. Generated {} files.", count.get());
-        });
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        final ResourceLocation id = new ResourceLocation(target.namespace(), target.path());
+        return runAsync(() -> generateItemData(options, id, ForgeRegistries.ITEMS.getValue(id)));
     }
 
-    private void generateItemData(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation id, final Item item) throws Exception
+    private void generateItemData(final DataGeneratorOptions<L> options, final ResourceLocation id, final Item item) throws Exception
     {
         final JsonObject json = new JsonObject();
         json.addProperty("name", item.getDescription().getString());
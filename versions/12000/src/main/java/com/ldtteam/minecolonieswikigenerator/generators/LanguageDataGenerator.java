@@ -8,7 +8,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.BufferedReader;
-import java.io.IOException;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
@@ -19,6 +18,8 @@ public class LanguageDataGenerator extends DataGenerator<ClientLevel>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private static final GeneratorTarget TARGET = new GeneratorTarget("", "en_us");
+
     @Override
     public String getName()
     {
@@ -32,11 +33,31 @@ public class LanguageDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public boolean dependsOnResources()
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting language data generation...");
+        return true;
+    }
 
+    @Override
+    public boolean requiresLevel()
+    {
+        return false;
+    }
+
+    @Override
+    public void listTargets(final TargetContext<ClientLevel> context)
+    {
+        // All translations are merged into a single file straight in the output folder
+        if (context.includes(TARGET.namespace(), TARGET.path()))
+        {
+            context.add(TARGET.namespace(), TARGET.path());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<ClientLevel> options)
+    {
+        return runAsync(() -> {
             final FileToIdConverter languages = new FileToIdConverter("lang", "en_us.json");
 
             final JsonObject allTranslations = new JsonObject();
@@ -54,16 +75,7 @@ public class LanguageDataGenerator extends DataGenerator<ClientLevel>
                 }
             });
 
-            try
-            {
-                options.saveJsonFile("", "en_us", allTranslations);
-            }
-            catch (IOException e)
-            {
-                LOGGER.error("Error saving final file for language generation", e);
-            }
-
-            LOGGER.info("Languages data generation complete.");
+            options.saveJsonFile(target.namespace(), target.path(), allTranslations);
         });
     }
 }
@@ -0,0 +1,76 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.Minecraft;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reuses the offscreen framebuffers of the image generators, so rendering many targets does not allocate and
+ * destroy a framebuffer with its textures for every single one.
+ *
+ * <p>Framebuffers are pooled by size and whether they have a depth buffer. {@link #acquire} hands out a cleared,
+ * bound framebuffer, {@link #release} returns it to the pool, and {@link #destroyAll()} frees the pooled ones once
+ * a generator has drained its targets. Render thread only.
+ */
+final class RenderTargetPool
+{
+    private static final Map<Key, Deque<TextureTarget>> FREE = new HashMap<>();
+
+    private RenderTargetPool()
+    {
+    }
+
+    /**
+     * Takes a framebuffer of the given size from the pool, or creates one, clears it to the given color and binds it
+     * for writing.
+     */
+    static TextureTarget acquire(
+        final int width,
+        final int height,
+        final boolean useDepth,
+        final float red,
+        final float green,
+        final float blue,
+        final float alpha)
+    {
+        RenderSystem.assertOnRenderThread();
+        final Deque<TextureTarget> free = FREE.get(new Key(width, height, useDepth));
+        final TextureTarget target = free == null || free.isEmpty() ? new TextureTarget(width, height, useDepth, Minecraft.ON_OSX) : free.pop();
+        target.setClearColor(red, green, blue, alpha);
+        target.clear(Minecraft.ON_OSX);
+        target.bindWrite(true);
+        return target;
+    }
+
+    /**
+     * Unbinds {@code target}, binds the main framebuffer again and returns {@code target} to the pool.
+     */
+    static void release(final TextureTarget target)
+    {
+        target.unbindWrite();
+        Minecraft.getInstance().getMainRenderTarget().bindWrite(true);
+        FREE.computeIfAbsent(new Key(target.width, target.height, target.useDepth), key -> new ArrayDeque<>()).push(target);
+    }
+
+    /**
+     * Destroys every pooled framebuffer. Framebuffers handed out and not yet released are not affected.
+     */
+    static void destroyAll()
+    {
+        RenderSystem.assertOnRenderThread();
+        FREE.values().forEach(free -> free.forEach(TextureTarget::destroyBuffers));
+        FREE.clear();
+    }
+
+    private record Key(
+        int width,
+        int height,
+        boolean useDepth)
+    {
+    }
+}
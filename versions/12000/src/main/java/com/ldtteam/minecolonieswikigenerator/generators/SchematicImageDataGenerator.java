@@ -1,5 +1,9 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
+import com.ldtteam.minecolonieswikigenerator.images.AreaResampler;
+import com.ldtteam.minecolonieswikigenerator.images.ImageEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.PngEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.RgbaImage;
 import com.ldtteam.structurize.blocks.ModBlocks;
 import com.ldtteam.structurize.blocks.schematic.BlockFluidSubstitution;
 import com.ldtteam.structurize.blocks.schematic.BlockSolidSubstitution;
@@ -10,7 +14,6 @@ import com.ldtteam.structurize.storage.StructurePacks;
 import com.ldtteam.structurize.util.BlockInfo;
 import com.mojang.blaze3d.pipeline.TextureTarget;
 import com.mojang.blaze3d.platform.Lighting;
-import com.mojang.blaze3d.platform.NativeImage;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.*;
 import com.mojang.math.Axis;
@@ -59,14 +62,14 @@ import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 /**
  * Generates front and back isometric PNG images for every blueprint registered in StructurePacks.
  * Each schematic is rendered with ambient occlusion via a blueprint-backed BlockAndTintGetter.
  */
-public class SchematicImageDataGenerator extends LongRunningDataGenerator<ClientLevel>
+public class SchematicImageDataGenerator extends DataGenerator<ClientLevel>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -75,6 +78,11 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
     // Controls internal render resolution: pixels per projected block unit
     private static final int PIXELS_PER_BLOCK = 64;
 
+    /**
+     * Schematic images are the largest, so their rows are compressed in parallel bands.
+     */
+    private static final ImageEncoder IMAGE_ENCODER = ImageEncoder.fromEnvironment(PngEncoder.fromEnvironment().withParallelBands(OUTPUT_SIZE / 8, WORKERS));
+
     private static final float PITCH     = 20f;
     private static final float FRONT_YAW = 22.5f;
     private static final float BACK_YAW  = 202.5f;
@@ -140,10 +148,29 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
     private static final Map<BlockState, BlockState> FLUID_BLOCK_BY_GROUND = Map.ofEntries(Map.entry(Blocks.NETHERRACK.defaultBlockState(), Blocks.LAVA.defaultBlockState()),
         Map.entry(Blocks.WARPED_NYLIUM.defaultBlockState(), Blocks.LAVA.defaultBlockState()));
 
-    public SchematicImageDataGenerator()
-    {
-        super(BATCH_SIZE);
-    }
+    // Every blueprint produces these images next to its hash file
+    private static final String[] VARIANT_SUFFIXES = {"_clean_front", "_clean_back", "_full_front", "_full_back", "_placed_front", "_placed_back"};
+
+    /**
+     * The targets listed by the last {@link #listTargets} call, to look up the index of a target.
+     */
+    private TargetContext<ClientLevel> listed;
+
+    /**
+     * The blueprint behind each hash file target by target index, {@code null} for variant targets, resolved by the
+     * last {@link #listTargets} call.
+     */
+    private List<BlueprintSource> blueprints = List.of();
+
+    /**
+     * The root directories of the structure packs walked by the last {@link #listTargets} call.
+     */
+    private List<Path> packRoots = List.of();
+
+    /**
+     * Reads the variants of a blueprint back while the next one renders; flushed at the end of every blueprint.
+     */
+    private final PixelReadback readback = new PixelReadback(2);
 
     @Override
     public String getName()
@@ -152,30 +179,43 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
     }
 
     @Override
-    public boolean shouldClearBeforeGeneration()
+    public Path getGeneratorOutputPath(final Path rootPath)
+    {
+        return rootPath.resolve("schematic_images");
+    }
+
+    @Override
+    public Integer batchSize()
     {
-        return false;
+        return BATCH_SIZE;
     }
 
     @Override
-    public Path getGeneratorOutputPath(final Path rootPath)
+    public void onBatchesDrained()
     {
-        return rootPath.resolve("schematic_images");
+        readback.destroy();
     }
 
+    /**
+     * Lists one target per blueprint for its hash file, plus one per rendered image variant, so that cleanup
+     * removes the outputs of blueprints that no longer exist.
+     */
     @Override
-    protected void queueTasks(final Consumer<Runnable> register, final DataGeneratorOptions<ClientLevel> options)
+    public void listTargets(final TargetContext<ClientLevel> context)
     {
+        final List<BlueprintSource> sources = new ArrayList<>();
+        final List<Path> roots = new ArrayList<>();
         for (final var packMeta : StructurePacks.getPackMetas())
         {
             final String packName = packMeta.getName();
             final Path packRoot = packMeta.getPath();
             final String packId = packRoot.getFileName().toString();
-            final Path packOutputPath = options.getOutputPath().resolve(packId);
-
-            // Collect all expected hash file paths so we can detect removed schematics afterwards
-            final Set<Path> expectedHashFiles = new HashSet<>();
+            if (!context.includesNamespace(packId))
+            {
+                continue;
+            }
 
+            roots.add(packRoot);
             try (final Stream<Path> walk = Files.walk(packRoot))
             {
                 for (final Path blueprintPath : (Iterable<Path>) walk.filter(p -> !Files.isDirectory(p) && p.toString().endsWith(".blueprint"))::iterator)
@@ -183,94 +223,117 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
                     final String subDir = packRoot.relativize(blueprintPath.getParent()).toString().replace('\\', '/');
                     final String fileName = blueprintPath.getFileName().toString().replace(".blueprint", "");
                     final String filePath = subDir.isEmpty() ? fileName : subDir + "/" + fileName;
-                    final Path hashFile = packOutputPath.resolve(filePath + ".hash");
-                    expectedHashFiles.add(hashFile);
-
-                    final String currentHash;
-                    try
+                    if (!context.includes(packId, filePath))
                     {
-                        currentHash = md5Stream(blueprintPath);
-                    }
-                    catch (final IOException e)
-                    {
-                        LOGGER.warn("Could not hash blueprint '{}': {}", blueprintPath, e.getMessage());
                         continue;
                     }
 
-                    if (hashMatches(hashFile, currentHash))
+                    final int index = context.add(packId, filePath);
+                    while (sources.size() <= index)
                     {
-                        continue;
+                        sources.add(null);
                     }
-
-                    final Blueprint blueprint = loadBlueprint(packName, blueprintPath);
-                    if (blueprint != null)
+                    sources.set(index, new BlueprintSource(packName, blueprintPath, subDir));
+                    for (final String variant : VARIANT_SUFFIXES)
                     {
-                        register.accept(() -> renderAndSave(options, packName, packId, subDir, blueprint, hashFile, currentHash));
+                        context.add(packId, filePath + variant);
                     }
                 }
             }
             catch (final IOException e)
             {
                 LOGGER.warn("Could not walk blueprint pack '{}' at {}: {}", packName, packRoot, e.getMessage());
-                continue;
             }
+        }
+        this.listed = context;
+        this.blueprints = sources;
+        this.packRoots = roots;
+    }
 
-            // Delete outputs for schematics that no longer exist
-            if (Files.exists(packOutputPath))
+    @Override
+    public Collection<Path> getWatchedPaths()
+    {
+        return packRoots;
+    }
+
+    /**
+     * The hash file targets of the blueprints at or below the changed paths; their variants are rendered alongside.
+     * Resource reloads are not tracked, since the stored hash only covers the blueprint itself.
+     */
+    @Override
+    public Set<GeneratorTarget> getAffectedTargets(final Collection<Path> changedFiles)
+    {
+        final Set<GeneratorTarget> affected = new HashSet<>();
+        for (int index = 0; index < blueprints.size(); index++)
+        {
+            final BlueprintSource source = blueprints.get(index);
+            if (source == null)
             {
-                try (final Stream<Path> walk = Files.walk(packOutputPath))
-                {
-                    walk.filter(p -> p.toString().endsWith(".hash") && !expectedHashFiles.contains(p)).forEach(orphanHash -> {
-                        final String base = orphanHash.toString().replace(".hash", "");
-                        for (final String variant : new String[] {"_clean_front", "_clean_back", "_full_front", "_full_back", "_placed_front", "_placed_back"})
-                        {
-                            try
-                            {
-                                Files.deleteIfExists(Path.of(base + variant + ".png"));
-                            }
-                            catch (final IOException ignored)
-                            {
-                            }
-                        }
-                        try
-                        {
-                            Files.deleteIfExists(orphanHash);
-                        }
-                        catch (final IOException ignored)
-                        {
-                        }
-                    });
-                }
-                catch (final IOException e)
+                continue;
+            }
+            for (final Path changed : changedFiles)
+            {
+                if (source.path().startsWith(changed))
                 {
-                    LOGGER.warn("Could not scan for orphaned outputs in pack '{}': {}", packId, e.getMessage());
+                    affected.add(listed.get(index));
+                    break;
                 }
             }
         }
+        return affected;
+    }
+
+    /**
+     * Only the hash file target of a blueprint renders, its variant targets are written alongside.
+     */
+    @Override
+    public boolean isStandaloneTarget(final GeneratorTarget target)
+    {
+        return blueprint(target) != null;
+    }
+
+    /**
+     * The blueprint behind {@code target}, or {@code null} if it is a variant target or was not listed.
+     */
+    private BlueprintSource blueprint(final GeneratorTarget target)
+    {
+        final int index = listed == null ? -1 : listed.indexOf(target);
+        return index >= 0 && index < blueprints.size() ? blueprints.get(index) : null;
+    }
+
+    /**
+     * Renders all image variants of a blueprint when called for its hash file target, unless the stored hash shows
+     * the blueprint is unchanged. Variant targets are written alongside, so calls for them do nothing. When output is
+     * discarded the stored hash is ignored, so every call renders.
+     */
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<ClientLevel> options)
+    {
+        final BlueprintSource source = blueprint(target);
+        if (source == null)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
 
-        // Remove all empty directories under the output root (catches stale pack folders too)
-        final Path outputRoot = options.getOutputPath();
-        if (Files.exists(outputRoot))
+        try
         {
-            try (final Stream<Path> walk = Files.walk(outputRoot))
+            final Path hashFile = options.getOutputPath().resolve(target.namespace()).resolve(target.path() + ".hash");
+            final String currentHash = md5Stream(source.path());
+            if (!options.isDiscardingOutput() && hashMatches(hashFile, currentHash))
             {
-                walk.filter(Files::isDirectory).sorted(Comparator.reverseOrder()).filter(p -> !p.equals(outputRoot)).forEach(dir -> {
-                    try (final Stream<Path> contents = Files.list(dir))
-                    {
-                        if (contents.findAny().isEmpty())
-                        {
-                            Files.delete(dir);
-                        }
-                    }
-                    catch (final IOException ignored)
-                    {
-                    }
-                });
+                return CompletableFuture.completedFuture(null);
             }
-            catch (final IOException e)
+
+            final Blueprint blueprint = loadBlueprint(source.packName(), source.path());
+            if (blueprint == null)
             {
-                LOGGER.warn("Could not clean empty directories in output root: {}", e.getMessage());
+                return CompletableFuture.completedFuture(null);
             }
+            return renderAndSave(options, source.packName(), target.namespace(), source.subDir(), blueprint, hashFile, currentHash);
+        }
+        catch (final IOException e)
+        {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -323,7 +386,11 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
         }
     }
 
-    private void renderAndSave(
+    /**
+     * Renders the variants of a blueprint on the render thread, then writes its hash file once every variant has been
+     * saved by the workers.
+     */
+    private CompletableFuture<Void> renderAndSave(
         final DataGeneratorOptions<ClientLevel> options,
         final String packName,
         final String packId,
@@ -333,6 +400,7 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
         final String hash)
     {
         final String fileName = blueprint.getFileName();
+        final List<CompletableFuture<Void>> saves = new ArrayList<>();
         try
         {
             final ClientLevel level = options.getLevel();
@@ -367,6 +435,7 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
             final int renderSize = Math.min((int) (orthoHalf * 2 * PIXELS_PER_BLOCK), 2048);
 
             final TextureTarget renderTarget = new TextureTarget(renderSize, renderSize, true, Minecraft.ON_OSX);
+            final AreaResampler resampler = new AreaResampler(renderSize, renderSize, OUTPUT_SIZE, OUTPUT_SIZE);
             renderTarget.setClearColor(0.53f, 0.81f, 0.98f, 1.0f);
 
             final Matrix4f projectionMatrix = new Matrix4f().setOrtho(-orthoHalf, orthoHalf, -orthoHalf, orthoHalf, -500.0f, 500.0f);
@@ -388,6 +457,7 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
                     final String dirSuffix = yaw == FRONT_YAW ? "_front" : "_back";
 
                     // --- Phase 1: ground + schematic without placeholders → _clean ---
+                    long time = System.nanoTime();
                     renderTarget.clear(Minecraft.ON_OSX);
                     renderTarget.bindWrite(true);
 
@@ -404,7 +474,7 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
                     RenderSystem.disableDepthTest();
                     renderBoundingBox(cameraStack, (float) sizeX, (float) sizeY, (float) sizeZ);
                     RenderSystem.enableDepthTest();
-                    flushAndSave(renderTarget, renderSize, options, packId, filePath + "_clean" + dirSuffix);
+                    time = flushAndSave(renderTarget, resampler, options, saves, packId, filePath + "_clean" + dirSuffix, time);
 
                     // --- Phase 2: overdraw placeholders → _full ---
                     // No clear — just draw the placeholder blocks on top of the existing framebuffer
@@ -414,7 +484,7 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
                     RenderSystem.disableDepthTest();
                     renderBoundingBox(cameraStack, (float) sizeX, (float) sizeY, (float) sizeZ);
                     RenderSystem.enableDepthTest();
-                    flushAndSave(renderTarget, renderSize, options, packId, filePath + "_full" + dirSuffix);
+                    time = flushAndSave(renderTarget, resampler, options, saves, packId, filePath + "_full" + dirSuffix, time);
 
                     // --- Phase 3: clear, re-render with ground at computed placement level → _placed ---
                     renderTarget.clear(Minecraft.ON_OSX);
@@ -424,11 +494,13 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
                     renderGround(mc, cameraStack, bufferSource(mc), blockView, groundBlock, sizeX, sizeY, sizeZ, groundPlaneY, rngSeed, grassPadding, grassPadding);
                     renderBlocks(mc, cameraStack, bufferSource(mc), blockView, teData, level, true, groundBlock, fluidBlock, groundPlaneY);
                     blockView.clearGroundContext();
-                    flushAndSave(renderTarget, renderSize, options, packId, filePath + "_placed" + dirSuffix);
+                    flushAndSave(renderTarget, resampler, options, saves, packId, filePath + "_placed" + dirSuffix, time);
                 }
             }
             finally
             {
+                // Complete the readbacks of this blueprint before its framebuffer is destroyed
+                readback.flush();
                 RenderSystem.disableBlend();
                 renderTarget.unbindWrite();
                 mc.getMainRenderTarget().bindWrite(true);
@@ -439,18 +511,32 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
         catch (final Exception e)
         {
             LOGGER.error("Error rendering schematic '{}' in pack '{}'", fileName, packName, e);
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        try
-        {
-            Files.createDirectories(hashFile.getParent());
-            Files.writeString(hashFile, hash, StandardCharsets.UTF_8);
-        }
-        catch (final IOException e)
-        {
-            LOGGER.error("Could not write hash file for schematic '{}' in pack '{}'", fileName, packName, e);
-        }
+        // Only write the hash once every variant was saved
+        return CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new)).handle((result, throwable) -> {
+            if (throwable != null)
+            {
+                LOGGER.error("Error saving schematic '{}' in pack '{}'", fileName, packName, throwable);
+                return null;
+            }
+            if (options.isDiscardingOutput())
+            {
+                return null;
+            }
+
+            try
+            {
+                Files.createDirectories(hashFile.getParent());
+                Files.writeString(hashFile, hash, StandardCharsets.UTF_8);
+            }
+            catch (final IOException e)
+            {
+                LOGGER.error("Could not write hash file for schematic '{}' in pack '{}'", fileName, packName, e);
+            }
+            return null;
+        });
     }
 
     /**
@@ -774,24 +860,38 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
         bufferSource.endBatch();
     }
 
-    private static void flushAndSave(
+    /**
+     * Queues the readback of the current framebuffer, which is then downsampled and saved off the render thread,
+     * reporting the render stages since {@code renderStart}.
+     *
+     * @param saves collects the pending save of the image
+     * @return the time at which the readback was queued, i.e. the start of the next render
+     */
+    private long flushAndSave(
         final TextureTarget renderTarget,
-        final int renderSize,
+        final AreaResampler resampler,
         final DataGeneratorOptions<ClientLevel> options,
+        final List<CompletableFuture<Void>> saves,
         final String packId,
-        final String filePath) throws IOException
+        final String filePath,
+        final long renderStart)
     {
+        final StageTimer timer = options.getStageTimer();
         renderTarget.bindWrite(true);
-        try (final NativeImage fullImage = new NativeImage(renderSize, renderSize, false))
-        {
-            RenderSystem.bindTexture(renderTarget.getColorTextureId());
-            fullImage.downloadTexture(0, false);
-            try (final NativeImage outputImage = new NativeImage(OUTPUT_SIZE, OUTPUT_SIZE, false))
-            {
-                downsample(fullImage, outputImage);
-                options.saveFile(packId, filePath, "png", outputImage.asByteArray());
-            }
-        }
+        final long time = timer.record(RenderStage.RENDER, renderStart);
+        final CompletableFuture<RgbaImage> pixels = readback.submit(renderTarget, renderTarget.width, renderTarget.height);
+        timer.record(RenderStage.READBACK, time);
+
+        // Downsample, encode and write on a worker while the next variant renders
+        saves.add(continueAsync(pixels, fullImage -> {
+            long start = System.nanoTime();
+            final RgbaImage outputImage = resampler.resample(fullImage);
+            start = timer.record(RenderStage.POST_PROCESS, start);
+            final byte[] encoded = IMAGE_ENCODER.encode(outputImage);
+            timer.record(RenderStage.ENCODE, start);
+            options.saveFile(packId, filePath, IMAGE_ENCODER.getExtension(), encoded);
+        }));
+        return System.nanoTime();
     }
 
     private static void renderBlockEntity(
@@ -980,52 +1080,6 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
         }
     }
 
-    /**
-     * Downsamples src into dst using area averaging (box filter).
-     */
-    private static void downsample(final NativeImage src, final NativeImage dst)
-    {
-        final float scaleX = (float) src.getWidth() / dst.getWidth();
-        final float scaleY = (float) src.getHeight() / dst.getHeight();
-
-        for (int dy = 0; dy < dst.getHeight(); dy++)
-        {
-            final float srcY0 = dy * scaleY;
-            final float srcY1 = srcY0 + scaleY;
-
-            for (int dx = 0; dx < dst.getWidth(); dx++)
-            {
-                final float srcX0 = dx * scaleX;
-                final float srcX1 = srcX0 + scaleX;
-
-                float r = 0, g = 0, b = 0, a = 0, weight = 0;
-
-                for (int sy = (int) srcY0; sy < (int) Math.ceil(srcY1); sy++)
-                {
-                    final float wy = Math.min(sy + 1, srcY1) - Math.max(sy, srcY0);
-                    for (int sx = (int) srcX0; sx < (int) Math.ceil(srcX1); sx++)
-                    {
-                        final float w = (Math.min(sx + 1, srcX1) - Math.max(sx, srcX0)) * wy;
-                        final int pixel = src.getPixelRGBA(sx, sy);
-                        r += (pixel & 0xFF) * w;
-                        g += ((pixel >> 8) & 0xFF) * w;
-                        b += ((pixel >> 16) & 0xFF) * w;
-                        a += ((pixel >> 24) & 0xFF) * w;
-                        weight += w;
-                    }
-                }
-
-                if (weight > 0)
-                {
-                    dst.setPixelRGBA(dx,
-                        dy,
-                        (Math.min(255, Math.round(a / weight)) << 24) | (Math.min(255, Math.round(b / weight)) << 16) | (Math.min(255, Math.round(g / weight)) << 8) | Math.min(255,
-                            Math.round(r / weight)));
-                }
-            }
-        }
-    }
-
     /**
      * Wraps a BufferSource so that every VertexConsumer it vends has its RGB vertex colors
      * multiplied by the given correction ratios. Used to fix the tint mismatch between
@@ -1244,4 +1298,18 @@ public class SchematicImageDataGenerator extends LongRunningDataGenerator<Client
             return colorResolver.getColor(level.getBiome(pos).value(), pos.getX(), pos.getZ());
         }
     }
+
+    /**
+     * Where a blueprint lives on disk.
+     *
+     * @param packName the display name of the structure pack
+     * @param path     the blueprint file
+     * @param subDir   the directory of the blueprint within its pack, using forward slashes
+     */
+    private record BlueprintSource(
+        String packName,
+        Path path,
+        String subDir)
+    {
+    }
 }
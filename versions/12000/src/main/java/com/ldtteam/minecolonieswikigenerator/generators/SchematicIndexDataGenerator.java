@@ -4,6 +4,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.ldtteam.structurize.blueprints.v1.Blueprint;
 import com.ldtteam.structurize.blueprints.v1.BlueprintUtil;
+import com.ldtteam.structurize.storage.StructurePackMeta;
 import com.ldtteam.structurize.storage.StructurePacks;
 import com.minecolonies.api.blocks.AbstractBlockHut;
 import net.minecraft.client.multiplayer.ClientLevel;
@@ -31,6 +32,8 @@ public class SchematicIndexDataGenerator extends DataGenerator<ClientLevel>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private static final String INDEX_PATH = "index";
+
     @Override
     public String getName()
     {
@@ -44,102 +47,116 @@ public class SchematicIndexDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public void listTargets(final TargetContext<ClientLevel> context)
     {
-        return CompletableFuture.runAsync(() -> {
-            for (final var packMeta : StructurePacks.getPackMetas())
+        for (final var packMeta : StructurePacks.getPackMetas())
+        {
+            final String packId = packMeta.getPath().getFileName().toString();
+            if (context.includes(packId, INDEX_PATH))
             {
-                final String packName = packMeta.getName();
-                final Path packRoot = packMeta.getPath();
-                final String packId = packRoot.getFileName().toString();
-                final List<String> authors = packMeta.getAuthors();
-
-                final List<JsonObject> schematics = new ArrayList<>();
+                context.add(packId, INDEX_PATH);
+            }
+        }
+    }
 
-                try (final Stream<Path> walk = Files.walk(packRoot))
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<ClientLevel> options)
+    {
+        return runAsync(() -> {
+            for (final var packMeta : StructurePacks.getPackMetas())
+            {
+                if (packMeta.getPath().getFileName().toString().equals(target.namespace()))
                 {
-                    for (final Path blueprintPath : (Iterable<Path>) walk.filter(p -> !Files.isDirectory(p) && p.toString().endsWith(".blueprint"))::iterator)
-                    {
-                        final Blueprint blueprint = loadBlueprint(blueprintPath);
-                        if (blueprint == null)
-                        {
-                            continue;
-                        }
-
-                        // Relative path of the containing directory within the pack, using forward slashes
-                        final String subDir = packRoot.relativize(blueprintPath.getParent()).toString().replace('\\', '/');
-                        final String fileName = blueprintPath.getFileName().toString().replace(".blueprint", "");
-
-                        final JsonObject schematic = new JsonObject();
-                        schematic.addProperty("id", fileName);
-
-                        // Detect building type by checking if the anchor block is a MineColonies hut block
-                        final AbstractBlockHut<?> hutBlock = getHutBlock(blueprint);
-                        if (hutBlock != null)
-                        {
-                            schematic.addProperty("type", "building");
-                            schematic.addProperty("building", hutBlock.getBlueprintName().toLowerCase());
-                        }
-                        else
-                        {
-                            schematic.addProperty("type", "decoration");
-                        }
-
-                        // path is the subdir within the pack (empty string if at pack root)
-                        schematic.addProperty("path", subDir);
-
-                        final JsonObject size = new JsonObject();
-                        size.addProperty("x", blueprint.getSizeX());
-                        size.addProperty("y", blueprint.getSizeY());
-                        size.addProperty("z", blueprint.getSizeZ());
-                        schematic.add("size", size);
-
-                        final String imagePath = subDir.isEmpty() ? fileName : subDir + "/" + fileName;
-                        final JsonObject images = new JsonObject();
-                        for (final String variant : new String[]{"clean", "full", "placed"})
-                        {
-                            final JsonArray variantImages = new JsonArray();
-                            variantImages.add(imagePath + "_" + variant + "_front.png");
-                            variantImages.add(imagePath + "_" + variant + "_back.png");
-                            images.add(variant, variantImages);
-                        }
-                        schematic.add("images", images);
-
-                        schematics.add(schematic);
-                    }
+                    generatePackIndex(options, packMeta);
                 }
-                catch (final IOException e)
+            }
+        });
+    }
+
+    private void generatePackIndex(final DataGeneratorOptions<ClientLevel> options, final StructurePackMeta packMeta) throws IOException
+    {
+        final String packName = packMeta.getName();
+        final Path packRoot = packMeta.getPath();
+        final String packId = packRoot.getFileName().toString();
+        final List<String> authors = packMeta.getAuthors();
+
+        final List<JsonObject> schematics = new ArrayList<>();
+
+        try (final Stream<Path> walk = Files.walk(packRoot))
+        {
+            for (final Path blueprintPath : (Iterable<Path>) walk.filter(p -> !Files.isDirectory(p) && p.toString().endsWith(".blueprint"))::iterator)
+            {
+                final Blueprint blueprint = loadBlueprint(blueprintPath);
+                if (blueprint == null)
                 {
-                    LOGGER.error("Could not walk blueprint pack '{}': {}", packId, e.getMessage());
                     continue;
                 }
 
-                // Build pack-level JSON object
-                final JsonObject packJson = new JsonObject();
-                packJson.addProperty("id", packId);
-                packJson.addProperty("displayName", packName);
+                // Relative path of the containing directory within the pack, using forward slashes
+                final String subDir = packRoot.relativize(blueprintPath.getParent()).toString().replace('\\', '/');
+                final String fileName = blueprintPath.getFileName().toString().replace(".blueprint", "");
+
+                final JsonObject schematic = new JsonObject();
+                schematic.addProperty("id", fileName);
 
-                final JsonArray authorsArray = new JsonArray();
-                for (final String author : authors)
+                // Detect building type by checking if the anchor block is a MineColonies hut block
+                final AbstractBlockHut<?> hutBlock = getHutBlock(blueprint);
+                if (hutBlock != null)
                 {
-                    authorsArray.add(author);
+                    schematic.addProperty("type", "building");
+                    schematic.addProperty("building", hutBlock.getBlueprintName().toLowerCase());
                 }
-                packJson.add("authors", authorsArray);
-
-                final JsonArray schematicsArray = new JsonArray();
-                schematics.forEach(schematicsArray::add);
-                packJson.add("schematics", schematicsArray);
-
-                try
+                else
                 {
-                    options.saveFile(packId, "index", "json", options.getGson().toJson(packJson).getBytes(StandardCharsets.UTF_8));
+                    schematic.addProperty("type", "decoration");
                 }
-                catch (final IOException e)
+
+                // path is the subdir within the pack (empty string if at pack root)
+                schematic.addProperty("path", subDir);
+
+                final JsonObject size = new JsonObject();
+                size.addProperty("x", blueprint.getSizeX());
+                size.addProperty("y", blueprint.getSizeY());
+                size.addProperty("z", blueprint.getSizeZ());
+                schematic.add("size", size);
+
+                final String imagePath = subDir.isEmpty() ? fileName : subDir + "/" + fileName;
+                final JsonObject images = new JsonObject();
+                for (final String variant : new String[]{"clean", "full", "placed"})
                 {
-                    LOGGER.error("Failed to write schematic index for pack '{}'", packId, e);
+                    final JsonArray variantImages = new JsonArray();
+                    variantImages.add(imagePath + "_" + variant + "_front.png");
+                    variantImages.add(imagePath + "_" + variant + "_back.png");
+                    images.add(variant, variantImages);
                 }
+                schematic.add("images", images);
+
+                schematics.add(schematic);
             }
-        });
+        }
+        catch (final IOException e)
+        {
+            LOGGER.error("Could not walk blueprint pack '{}': {}", packId, e.getMessage());
+            return;
+        }
+
+        // Build pack-level JSON object
+        final JsonObject packJson = new JsonObject();
+        packJson.addProperty("id", packId);
+        packJson.addProperty("displayName", packName);
+
+        final JsonArray authorsArray = new JsonArray();
+        for (final String author : authors)
+        {
+            authorsArray.add(author);
+        }
+        packJson.add("authors", authorsArray);
+
+        final JsonArray schematicsArray = new JsonArray();
+        schematics.forEach(schematicsArray::add);
+        packJson.add("schematics", schematicsArray);
+
+        options.saveFile(packId, INDEX_PATH, "json", options.getGson().toJson(packJson).getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -5,6 +5,7 @@ import com.ldtteam.minecolonieswikigenerator.research.ResearchObjectType;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.registries.Registries;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
 import net.minecraft.world.Difficulty;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.GameType;
@@ -13,10 +14,12 @@ import net.minecraft.world.level.WorldDataConfiguration;
 import net.minecraft.world.level.levelgen.WorldOptions;
 import net.minecraft.world.level.levelgen.presets.WorldPresets;
 import net.neoforged.api.distmarker.Dist;
+import net.neoforged.bus.api.IEventBus;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.client.event.ClientTickEvent;
+import net.neoforged.neoforge.client.event.RegisterClientReloadListenersEvent;
 import net.neoforged.neoforge.common.NeoForge;
 
 import java.nio.file.Files;
@@ -28,15 +31,22 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
 {
     private static final String DATAGEN_WORLD = "datagen_world";
     private final AtomicBoolean worldCreationTriggered = new AtomicBoolean(false);
+    private RenderTakeover takeover;
 
-    public Entrypoint(final Dist dist)
+    public Entrypoint(final IEventBus modBus, final Dist dist)
     {
         super();
         if (dist.isClient())
         {
             this.initialize();
+            this.takeover = RenderTakeover.fromEnvironment();
+            modBus.addListener(this::onRegisterReloadListeners);
+            NeoForge.EVENT_BUS.register(this);
+        }
+        else
+        {
+            new ServerEntrypoint();
         }
-        NeoForge.EVENT_BUS.register(this);
     }
 
     @SubscribeEvent
@@ -44,9 +54,24 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
     {
         final Minecraft mc = Minecraft.getInstance();
 
+        // Wait for the initial resource load, so generators that need no level can start before the world is created
+        if (mc.getOverlay() != null)
+        {
+            return;
+        }
+
+        // Without a generator that needs a level, skip world creation entirely
+        if (!this.requiresLevel())
+        {
+            this.tick();
+            return;
+        }
+
         // If no datagen world exists yet, create it and wait for it to load
         if (mc.level == null && worldCreationTriggered.compareAndSet(false, true))
         {
+            this.tickBeforeLevel();
+
             final Path worldPath = mc.getLevelSource().getBaseDir().resolve(DATAGEN_WORLD);
             if (!Files.exists(worldPath))
             {
@@ -71,13 +96,26 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
             return;
         }
 
-        // Wait for the game to be fully loaded
+        // Wait for the game to be fully loaded, meanwhile advancing the generators that need no level
         if (mc.level == null || mc.player == null)
         {
+            this.tickBeforeLevel();
             return;
         }
 
         this.tick();
+        if (takeover != null)
+        {
+            takeover.update(getManager());
+        }
+    }
+
+    /**
+     * Lets watch mode know when resources were reloaded, e.g. by F3+T after editing a resource pack.
+     */
+    private void onRegisterReloadListeners(final RegisterClientReloadListenersEvent event)
+    {
+        event.registerReloadListener((ResourceManagerReloadListener) resourceManager -> this.onResourcesReloaded());
     }
 
     @Override
@@ -95,20 +133,20 @@ public class Entrypoint extends RootEntrypoint<ClientLevel>
     @Override
     protected void getGenerators(final DataGeneratorCollector<ClientLevel> collector)
     {
-        collector.add(true, new BlockDataGenerator());
+        collector.add(true, new BlockDataGenerator<>());
         collector.add(true, new BlockImageDataGenerator());
         collector.add(true, new BlockStateDataGenerator());
-        collector.add(true, new CitizenNamesDataGenerator());
-        collector.add(true, new ConfigurationDataGenerator());
-        collector.add(true, new CrafterRecipeDataGenerator());
-        collector.add(true, new ItemDataGenerator());
+        collector.add(true, new CitizenNamesDataGenerator<>());
+        collector.add(true, new ConfigurationDataGenerator<>());
+        collector.add(true, new CrafterRecipeDataGenerator<>());
+        collector.add(true, new ItemDataGenerator<>());
         collector.add(true, new ItemImageDataGenerator());
-        collector.add(true, new ItemTagDataGenerator());
+        collector.add(true, new ItemTagDataGenerator<>());
         collector.add(true, new LanguageDataGenerator());
-        collector.add(true, new RecipeDataGenerator());
-        collector.add(true, new ResearchDataGenerator(ResearchObjectType.RESEARCH));
-        collector.add(true, new ResearchDataGenerator(ResearchObjectType.RESEARCH_TREE));
-        collector.add(true, new ResearchDataGenerator(ResearchObjectType.RESEARCH_EFFECT));
+        collector.add(true, new RecipeDataGenerator<>());
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH));
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH_TREE));
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH_EFFECT));
     }
 
     @Override
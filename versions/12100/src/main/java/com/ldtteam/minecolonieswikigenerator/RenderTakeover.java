@@ -0,0 +1,136 @@
+package com.ldtteam.minecolonieswikigenerator;
+
+import com.ldtteam.minecolonieswikigenerator.generators.DataGeneratorManager;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.Component;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render-takeover mode: while batched generators render their targets, the game stops drawing frames of its own,
+ * so the render thread and the GPU are left to the offscreen target renders.
+ *
+ * <p>Enabled by setting {@code RENDER_TAKEOVER} to {@code true}. While a batched generator is active, world and GUI
+ * rendering are skipped and the game and its sounds are paused behind an invisible pause screen. Batches are driven
+ * by the game tick, which runs at a fixed 20 per second however fast frames are, so instead of a single batch per
+ * tick the manager runs batches back to back for most of the tick. Since nothing is drawn, progress is shown in the
+ * window title instead. Everything is restored once no batched generator has been active for a second, e.g. between
+ * watch mode passes.
+ */
+final class RenderTakeover
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ENV_RENDER_TAKEOVER = "RENDER_TAKEOVER";
+
+    /**
+     * How long batches run per game tick, leaving the rest of the 50 ms tick to the game and the window.
+     */
+    private static final long BATCH_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(40);
+
+    /**
+     * Ticks without a batched generator before the game takes over rendering again, so the short gap between two
+     * batched generators does not restore it.
+     */
+    private static final int RELEASE_DELAY_TICKS = 20;
+
+    private boolean active;
+    private int     idleTicks;
+
+    private RenderTakeover()
+    {
+    }
+
+    /**
+     * Reads the {@code RENDER_TAKEOVER} environment variable.
+     *
+     * @return the takeover, or {@code null} when render-takeover mode is not enabled
+     */
+    static RenderTakeover fromEnvironment()
+    {
+        if (!Boolean.parseBoolean(System.getenv(ENV_RENDER_TAKEOVER)))
+        {
+            return null;
+        }
+        LOGGER.info("Render takeover mode enabled, the game will not render while images are generated.");
+        return new RenderTakeover();
+    }
+
+    /**
+     * Called after every manager tick on the render thread. Runs further batches while a batched generator is
+     * active.
+     */
+    void update(final DataGeneratorManager<?> manager)
+    {
+        final Minecraft mc = Minecraft.getInstance();
+        if (manager.getBatchProgress() == null)
+        {
+            if (active && ++idleTicks >= RELEASE_DELAY_TICKS)
+            {
+                release(mc);
+            }
+            return;
+        }
+
+        idleTicks = 0;
+        if (!active)
+        {
+            takeOver(mc);
+        }
+        manager.processBatches(BATCH_BUDGET_NANOS);
+
+        final DataGeneratorManager.BatchProgress progress = manager.getBatchProgress();
+        if (progress != null)
+        {
+            mc.getWindow().setTitle(String.format("Generating %s %d/%d", progress.generatorName(), progress.completed(), progress.total()));
+        }
+    }
+
+    private void takeOver(final Minecraft mc)
+    {
+        active = true;
+        mc.getSoundManager().pause();
+        mc.setScreen(new TakeoverScreen());
+        mc.noRender = true;
+        LOGGER.info("Suspended game rendering for image generation");
+    }
+
+    private void release(final Minecraft mc)
+    {
+        active = false;
+        mc.noRender = false;
+        if (mc.screen instanceof TakeoverScreen)
+        {
+            mc.setScreen(null);
+        }
+        mc.getSoundManager().resume();
+        mc.updateTitle();
+        LOGGER.info("Resumed game rendering");
+    }
+
+    /**
+     * Never drawn, only open so the integrated server pauses and the level, particles and entities stop ticking.
+     */
+    private static final class TakeoverScreen extends Screen
+    {
+        private TakeoverScreen()
+        {
+            super(Component.literal("Generating images"));
+        }
+
+        @Override
+        public boolean isPauseScreen()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean shouldCloseOnEsc()
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ldtteam.minecolonieswikigenerator;
+
+import com.ldtteam.minecolonieswikigenerator.generators.*;
+import com.ldtteam.minecolonieswikigenerator.research.ResearchObjectType;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+
+import java.nio.file.Path;
+
+/**
+ * Runs the generators that need no client on a dedicated server, without a window, GL context or audio.
+ * Created by {@link Entrypoint} on the dedicated server dist; generation starts once the server has
+ * loaded its world and the server stops when it is done.
+ */
+public class ServerEntrypoint extends RootEntrypoint<ServerLevel>
+{
+    private MinecraftServer server;
+
+    public ServerEntrypoint()
+    {
+        super();
+        this.initialize();
+        NeoForge.EVENT_BUS.register(this);
+    }
+
+    @SubscribeEvent
+    public void onServerStarted(final ServerStartedEvent event)
+    {
+        this.server = event.getServer();
+    }
+
+    @SubscribeEvent
+    public void onServerTick(final ServerTickEvent.Post event)
+    {
+        if (server == null)
+        {
+            return;
+        }
+
+        this.tick();
+    }
+
+    @Override
+    public ServerLevel getLevel()
+    {
+        return server == null ? null : server.overworld();
+    }
+
+    @Override
+    public Path getOutputPath()
+    {
+        return FMLPaths.GAMEDIR.get().resolve("..").resolve("output").normalize();
+    }
+
+    @Override
+    protected void getGenerators(final DataGeneratorCollector<ServerLevel> collector)
+    {
+        collector.add(true, new BlockDataGenerator<>());
+        collector.add(true, new CitizenNamesDataGenerator<>());
+        collector.add(true, new ConfigurationDataGenerator<>());
+        collector.add(true, new CrafterRecipeDataGenerator<>());
+        collector.add(true, new ItemDataGenerator<>());
+        collector.add(true, new ItemTagDataGenerator<>());
+        collector.add(true, new RecipeDataGenerator<>());
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH));
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH_TREE));
+        collector.add(true, new ResearchDataGenerator<>(ResearchObjectType.RESEARCH_EFFECT));
+    }
+
+    @Override
+    public void shutdown()
+    {
+        server.execute(() -> server.halt(false));
+    }
+}
@@ -1,26 +1,20 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
 import com.google.gson.JsonObject;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.block.Block;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates JSON data for all registered blocks.
  */
-public class BlockDataGenerator extends DataGenerator<ClientLevel>
+public class BlockDataGenerator<L> extends DataGenerator<L>
 {
-    private static final Logger LOGGER = LogManager.getLogger();
-
     @Override
     public String getName()
     {
@@ -34,33 +28,31 @@ public class BlockDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public boolean requiresLevel()
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting blocks data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
+        return false;
+    }
 
-            BuiltInRegistries.BLOCK.entrySet().forEach(entry -> {
-                if (options.isNamespaceExcluded(entry.getKey().location().getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    generateBlockData(options, entry.getKey().location(), entry.getValue());
-                    count.incrementAndGet();
-                }
-                catch (Exception e)
-                {
-                    LOGGER.error("Error generating data for block: {}", entry.getKey().location(), e);
-                }
-            });
+    @Override
+    public void listTargets(final TargetContext<L> context)
+    {
+        for (final ResourceLocation id : BuiltInRegistries.BLOCK.keySet())
+        {
+            if (context.includes(id.getNamespace(), id.getPath()))
+            {
+                context.add(id.getNamespace(), id.getPath());
+            }
+        }
+    }
 
-            LOGGER.info("Blocks data generation complete. Generated {} files.", count.get());
-        });
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        final ResourceLocation id = ResourceLocation.fromNamespaceAndPath(target.namespace(), target.path());
+        return runAsync(() -> generateBlockData(options, id, BuiltInRegistries.BLOCK.get(id)));
     }
 
-    private void generateBlockData(final DataGeneratorOptions options, final ResourceLocation id, final Block block) throws Exception
+    private void generateBlockData(final DataGeneratorOptions<L> options, final ResourceLocation id, final Block block) throws Exception
     {
         final JsonObject json = new JsonObject();
         json.addProperty("name", block.getName().getString());
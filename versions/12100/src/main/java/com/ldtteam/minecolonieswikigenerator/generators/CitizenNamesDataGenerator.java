@@ -1,25 +1,22 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.resources.FileToIdConverter;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.Resource;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates JSON data for all citizen names.
  */
-public class CitizenNamesDataGenerator extends DataGenerator<ClientLevel>
+public class CitizenNamesDataGenerator<L> extends DataGenerator<L>
 {
-    private static final Logger LOGGER = LogManager.getLogger();
+    private static final FileToIdConverter CITIZEN_NAMES = FileToIdConverter.json("citizennames");
 
     @Override
     public String getName()
@@ -34,34 +31,31 @@ public class CitizenNamesDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public void listTargets(final TargetContext<L> context)
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting citizen names data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
+        for (final ResourceLocation file : CITIZEN_NAMES.listMatchingResources(getResourceManager()).keySet())
+        {
+            final ResourceLocation id = CITIZEN_NAMES.fileToId(file);
+            if (context.includes(id.getNamespace(), id.getPath()))
+            {
+                context.add(id.getNamespace(), id.getPath());
+            }
+        }
+    }
 
-            final FileToIdConverter citizenNames = FileToIdConverter.json("citizennames");
-            citizenNames.listMatchingResources(Minecraft.getInstance().getSingleplayerServer().getResourceManager()).forEach((key, value) -> {
-                if (options.isNamespaceExcluded(citizenNames.fileToId(key).getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    generateCitizenNamesData(options, citizenNames.fileToId(key), value);
-                    count.incrementAndGet();
-                }
-                catch (Exception e)
-                {
-                    LOGGER.error("Error generating data for citizen names: {}", key, e);
-                }
-            });
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        final ResourceLocation id = ResourceLocation.fromNamespaceAndPath(target.namespace(), target.path());
+        return runAsync(() -> generateCitizenNamesData(options, id, getResourceManager().getResourceOrThrow(CITIZEN_NAMES.idToFile(id))));
+    }
 
-            LOGGER.info("Citizen names data generation complete. Generated {} files.", count.get());
-        });
+    private static ResourceManager getResourceManager()
+    {
+        return ServerLifecycleHooks.getCurrentServer().getResourceManager();
     }
 
-    private void generateCitizenNamesData(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation citizenNameId, final Resource resource) throws IOException
+    private void generateCitizenNamesData(final DataGeneratorOptions<L> options, final ResourceLocation citizenNameId, final Resource resource) throws IOException
     {
         try (final InputStream stream = resource.open())
         {
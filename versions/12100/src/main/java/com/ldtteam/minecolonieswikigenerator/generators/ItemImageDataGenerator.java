@@ -1,8 +1,11 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
+import com.ldtteam.minecolonieswikigenerator.images.ImageEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.ImageKernels;
+import com.ldtteam.minecolonieswikigenerator.images.PngEncoder;
+import com.ldtteam.minecolonieswikigenerator.images.RgbaImage;
 import com.mojang.blaze3d.pipeline.TextureTarget;
 import com.mojang.blaze3d.platform.Lighting;
-import com.mojang.blaze3d.platform.NativeImage;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.VertexSorting;
 import net.minecraft.client.Minecraft;
@@ -18,26 +21,30 @@ import org.apache.logging.log4j.Logger;
 import org.joml.Matrix4f;
 import org.joml.Matrix4fStack;
 
-import java.io.IOException;
 import java.nio.file.Path;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Generates PNG images for all items using Minecraft's ItemRenderer.
  * This handles both 2D item sprites and 3D block models correctly.
- * This generator must run on the render thread since it requires OpenGL context.
+ * Rendering must run on the render thread since it requires OpenGL context; flipping and encoding do not.
  */
-public class ItemImageDataGenerator extends LongRunningDataGenerator<ClientLevel>
+public class ItemImageDataGenerator extends DataGenerator<ClientLevel>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
     private static final int IMAGE_SIZE = 300;
     private static final int BATCH_SIZE = 10;
 
-    public ItemImageDataGenerator()
-    {
-        super(BATCH_SIZE);
-    }
+    /**
+     * Reads the renders back while the next item renders, so post-processing an item overlaps the render of the next.
+     */
+    private final PixelReadback readback = new PixelReadback(2);
+
+    /**
+     * Writes the images as separate files or into per-namespace atlases.
+     */
+    private final ImageOutput output = ImageOutput.fromEnvironment(ImageEncoder.fromEnvironment(PngEncoder.fromEnvironment().withPalette()), IMAGE_SIZE);
 
     @Override
     public String getName()
@@ -52,62 +59,78 @@ public class ItemImageDataGenerator extends LongRunningDataGenerator<ClientLevel
     }
 
     @Override
-    protected void queueTasks(final Consumer<Runnable> register, final DataGeneratorOptions<ClientLevel> options)
+    public boolean dependsOnResources()
     {
-        BuiltInRegistries.ITEM.entrySet().forEach(entry -> {
-            if (options.isNamespaceExcluded(entry.getKey().location().getNamespace()))
-            {
-                return;
-            }
-            final Item item = entry.getValue();
-            final ResourceLocation itemId = entry.getKey().location();
-            register.accept(() -> generateItemImage(options, itemId, item));
-        });
+        return true;
     }
 
-    private void generateItemImage(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation itemId, final Item item)
+    @Override
+    public Integer batchSize()
     {
-        try
+        return BATCH_SIZE;
+    }
+
+    @Override
+    public void onBatchesDrained()
+    {
+        readback.destroy();
+        RenderTargetPool.destroyAll();
+    }
+
+    @Override
+    public void listTargets(final TargetContext<ClientLevel> context)
+    {
+        for (final ResourceLocation itemId : BuiltInRegistries.ITEM.keySet())
         {
-            final ItemStack stack = new ItemStack(item);
-            final byte[] imageData = renderItemToImage(stack, IMAGE_SIZE);
-            if (imageData != null)
+            if (context.includes(itemId.getNamespace(), itemId.getPath()))
             {
-                options.saveFile(itemId.getNamespace(), itemId.getPath(), "png", imageData);
-            }
-            else
-            {
-                LOGGER.warn("Failed to render image for item: {}", itemId);
+                context.add(itemId.getNamespace(), itemId.getPath());
             }
         }
-        catch (Exception e)
+        output.setTargets(context);
+    }
+
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<ClientLevel> options)
+    {
+        final Item item = BuiltInRegistries.ITEM.get(ResourceLocation.fromNamespaceAndPath(target.namespace(), target.path()));
+        final ItemStack stack = new ItemStack(item);
+        if (stack.isEmpty())
         {
-            LOGGER.error("Error generating image for item: {}", itemId, e);
+            LOGGER.warn("Failed to render image for item: {}", target);
+            return CompletableFuture.completedFuture(null);
         }
+
+        final StageTimer timer = options.getStageTimer();
+        // Only the render and readback need the render thread, the flip, encode and write run on a worker
+        return continueAsync(renderItem(stack, IMAGE_SIZE, timer, readback),
+            image -> output.save(target, flip(image, timer), options));
+    }
+
+    @Override
+    public CompletableFuture<Void> onTargetsCompleted(final DataGeneratorOptions<ClientLevel> options)
+    {
+        return output.writeAtlases(options);
     }
 
     /**
-     * Renders an item to a PNG image using Minecraft's ItemRenderer.
+     * Renders an item into a framebuffer using Minecraft's ItemRenderer and queues its readback.
      * This mimics GuiGraphics.renderItem() but renders to a framebuffer.
      *
-     * @param stack the item stack to render
-     * @param size  the maximum size of the output image (width and height)
-     * @return the rendered image as PNG byte data, or null if rendering failed
+     * @param stack    the item stack to render, not empty
+     * @param size     the size to render at (width and height)
+     * @param timer    the timer to report the render stages to
+     * @param readback the readback ring to read the framebuffer through
+     * @return the render with its rows bottom-up, completed on the render thread once its readback finishes
      */
-    public static byte[] renderItemToImage(final ItemStack stack, final int size)
+    private static CompletableFuture<RgbaImage> renderItem(final ItemStack stack, final int size, final StageTimer timer, final PixelReadback readback)
     {
-        if (stack.isEmpty())
-        {
-            return null;
-        }
+        long time = System.nanoTime();
 
         final Minecraft mc = Minecraft.getInstance();
 
-        // Create framebuffer
-        final TextureTarget renderTarget = new TextureTarget(size, size, true, Minecraft.ON_OSX);
-        renderTarget.setClearColor(0.0f, 0.0f, 0.0f, 0.0f);
-        renderTarget.clear(Minecraft.ON_OSX);
-        renderTarget.bindWrite(true);
+        // Take a cleared framebuffer from the pool to render into
+        final TextureTarget renderTarget = RenderTargetPool.acquire(size, size, true, 0.0f, 0.0f, 0.0f, 0.0f);
 
         // Set up projection
         final Matrix4f matrix4f = new Matrix4f().setOrtho(0.0F, size, size, 0.0F, 1000.0F, ClientHooks.getGuiFarPlane());
@@ -127,28 +150,31 @@ public class ItemImageDataGenerator extends LongRunningDataGenerator<ClientLevel
         guiGraphics.renderFakeItem(stack, 0, 0);
         guiGraphics.pose().popPose();
         guiGraphics.flush();
+        time = timer.record(RenderStage.RENDER, time);
 
-        // Read pixels
-        try (final NativeImage image = new NativeImage(size, size, false))
-        {
-            RenderSystem.bindTexture(renderTarget.getColorTextureId());
-            image.downloadTexture(0, false);
-            image.flipY();
-
-            return image.asByteArray();
-        }
-        catch (IOException e)
+        // Queue the readback, its pixels are mapped while a later item renders
+        try
         {
-            LOGGER.error("Error rendering item image", e);
-            return null;
+            final CompletableFuture<RgbaImage> pixels = readback.submit(renderTarget, size, size);
+            timer.record(RenderStage.READBACK, time);
+            return pixels;
         }
         finally
         {
             matrix4fstack.popMatrix();
             RenderSystem.applyModelViewMatrix();
-            renderTarget.unbindWrite();
-            mc.getMainRenderTarget().bindWrite(true);
-            renderTarget.destroyBuffers();
+            RenderTargetPool.release(renderTarget);
         }
     }
+
+    /**
+     * Flips a read-back render upright.
+     */
+    private static RgbaImage flip(final RgbaImage image, final StageTimer timer)
+    {
+        final long time = System.nanoTime();
+        ImageKernels.flipVertically(image);
+        timer.record(RenderStage.POST_PROCESS, time);
+        return image;
+    }
 }
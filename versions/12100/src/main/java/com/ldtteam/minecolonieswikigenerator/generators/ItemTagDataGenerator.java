@@ -1,29 +1,30 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
 import com.google.gson.JsonArray;
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.Holder;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagLoader;
 import net.minecraft.world.item.Item;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates JSON data for all item tags.
  */
-public class ItemTagDataGenerator extends DataGenerator<ClientLevel>
+public class ItemTagDataGenerator<L> extends DataGenerator<L>
 {
-    private static final Logger LOGGER = LogManager.getLogger();
+    /**
+     * The tags resolved by the last {@link #listTargets} call, loading them is too expensive to repeat per target.
+     */
+    private Map<ResourceLocation, Collection<Holder<Item>>> tags = Map.of();
 
     @Override
     public String getName()
@@ -38,34 +39,29 @@ public class ItemTagDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public void listTargets(final TargetContext<L> context)
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting item tags data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
+        final TagLoader<Holder<Item>> tagloader = new TagLoader<>(BuiltInRegistries.ITEM::getHolder, Registries.tagsDirPath(BuiltInRegistries.ITEM.key()));
+        final Map<ResourceLocation, Collection<Holder<Item>>> loadedTags = new HashMap<>();
+        tagloader.loadAndBuild(ServerLifecycleHooks.getCurrentServer().getResourceManager()).forEach((key, value) -> {
+            if (context.includes(key.getNamespace(), key.getPath()))
+            {
+                loadedTags.put(key, value);
+            }
+        });
+        this.tags = loadedTags;
 
-            final TagLoader<Holder<Item>> tagloader = new TagLoader<>(BuiltInRegistries.ITEM::getHolder, Registries.tagsDirPath(BuiltInRegistries.ITEM.key()));
-            tagloader.loadAndBuild(Minecraft.getInstance().getSingleplayerServer().getResourceManager()).forEach((key, value) -> {
-                if (options.isNamespaceExcluded(key.getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    generateItemTagData(options, key, value);
-                    count.incrementAndGet();
-                }
-                catch (Exception e)
-                {
-                    LOGGER.error("Error generating data for item tags: {}", key, e);
-                }
-            });
+        loadedTags.keySet().forEach(key -> context.add(key.getNamespace(), key.getPath()));
+    }
 
-            LOGGER.info("Item tags data generation complete. Generated {} files.", count.get());
-        });
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        final ResourceLocation id = ResourceLocation.fromNamespaceAndPath(target.namespace(), target.path());
+        return runAsync(() -> generateItemTagData(options, id, tags.get(id)));
     }
 
-    private void generateItemTagData(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation itemTagId, final Collection<Holder<Item>> itemCollection)
+    private void generateItemTagData(final DataGeneratorOptions<L> options, final ResourceLocation itemTagId, final Collection<Holder<Item>> itemCollection)
         throws IOException
     {
         final JsonArray array = new JsonArray();
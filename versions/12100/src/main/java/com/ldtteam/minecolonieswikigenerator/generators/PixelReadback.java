@@ -0,0 +1,144 @@
+package com.ldtteam.minecolonieswikigenerator.generators;
+
+import com.ldtteam.minecolonieswikigenerator.images.RgbaImage;
+import com.mojang.blaze3d.pipeline.RenderTarget;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads framebuffers back through a ring of pixel buffer objects, so the render thread does not wait for the GPU
+ * to finish every image before drawing the next one.
+ *
+ * <p>{@link #submit} only queues the copy of a framebuffer into the next buffer of the ring and returns. A readback
+ * is mapped and its future completed once its buffer is needed again, i.e. during a later {@link #submit}, by which
+ * time the GPU has usually finished it; {@link #flush()} completes all outstanding readbacks. With two buffers, the
+ * pixels of one image are mapped and post-processed while the next one renders. Render thread only.
+ */
+final class PixelReadback
+{
+    private final int[]  buffers;
+    private final long[] capacities;
+
+    private final Deque<Readback> pending = new ArrayDeque<>();
+
+    private int next;
+
+    /**
+     * @param slots the number of pixel buffers in the ring, at least 2 to overlap rendering and readback
+     */
+    PixelReadback(final int slots)
+    {
+        this.buffers = new int[slots];
+        this.capacities = new long[slots];
+    }
+
+    /**
+     * Starts copying the color attachment of {@code target} into the next pixel buffer. The rows of the resulting
+     * image are bottom-up, like those of {@code NativeImage.downloadTexture}.
+     *
+     * @return a future completed with the pixels during a later call to {@link #submit} or {@link #flush()}, on the
+     *     render thread
+     */
+    CompletableFuture<RgbaImage> submit(final RenderTarget target, final int width, final int height)
+    {
+        RenderSystem.assertOnRenderThread();
+        final int slot = next;
+        next = (next + 1) % buffers.length;
+
+        if (buffers[slot] == 0)
+        {
+            buffers[slot] = GlStateManager._glGenBuffers();
+        }
+        final long size = (long) width * height * 4;
+        GlStateManager._glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, buffers[slot]);
+        if (capacities[slot] < size)
+        {
+            GlStateManager._glBufferData(GL21.GL_PIXEL_PACK_BUFFER, size, GL15.GL_STREAM_READ);
+            capacities[slot] = size;
+        }
+        GlStateManager._glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, target.frameBufferId);
+        GlStateManager._pixelStore(GL11.GL_PACK_ALIGNMENT, 4);
+        GlStateManager._readPixels(0, 0, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+        GlStateManager._glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+
+        final Readback readback = new Readback(slot, width, height, new CompletableFuture<>());
+        pending.add(readback);
+
+        // Keep all but one buffer in flight, so the next submit always finds its buffer free
+        while (pending.size() >= buffers.length)
+        {
+            finish(pending.poll());
+        }
+        return readback.future();
+    }
+
+    /**
+     * Completes every outstanding readback, in submission order.
+     */
+    void flush()
+    {
+        RenderSystem.assertOnRenderThread();
+        while (!pending.isEmpty())
+        {
+            finish(pending.poll());
+        }
+    }
+
+    /**
+     * Completes every outstanding readback and deletes the pixel buffers. The ring can be used again afterwards.
+     */
+    void destroy()
+    {
+        flush();
+        for (int slot = 0; slot < buffers.length; slot++)
+        {
+            if (buffers[slot] != 0)
+            {
+                GlStateManager._glDeleteBuffers(buffers[slot]);
+                buffers[slot] = 0;
+                capacities[slot] = 0;
+            }
+        }
+    }
+
+    private void finish(final Readback readback)
+    {
+        final int[] pixels = new int[readback.width() * readback.height()];
+        GlStateManager._glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, buffers[readback.slot()]);
+        try
+        {
+            final ByteBuffer mapped = GlStateManager._glMapBuffer(GL21.GL_PIXEL_PACK_BUFFER, GL15.GL_READ_ONLY);
+            if (mapped == null)
+            {
+                readback.future().completeExceptionally(new IllegalStateException("Could not map pixel buffer"));
+                return;
+            }
+            // RGBA bytes read as little-endian ints match NativeImage's pixel layout, red in the lowest byte
+            mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(pixels);
+            GlStateManager._glUnmapBuffer(GL21.GL_PIXEL_PACK_BUFFER);
+        }
+        finally
+        {
+            GlStateManager._glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+        }
+        readback.future().complete(new RgbaImage(readback.width(), readback.height(), pixels));
+    }
+
+    private record Readback(
+        int slot,
+        int width,
+        int height,
+        CompletableFuture<RgbaImage> future)
+    {
+    }
+}
@@ -1,26 +1,23 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.FileToIdConverter;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.Resource;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates JSON data for all recipes.
  */
-public class RecipeDataGenerator extends DataGenerator<ClientLevel>
+public class RecipeDataGenerator<L> extends DataGenerator<L>
 {
-    private static final Logger LOGGER = LogManager.getLogger();
+    private static final FileToIdConverter RECIPES = FileToIdConverter.json(Registries.elementsDirPath(Registries.RECIPE));
 
     @Override
     public String getName()
@@ -35,34 +32,31 @@ public class RecipeDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public void listTargets(final TargetContext<L> context)
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting recipes data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
+        for (final ResourceLocation file : RECIPES.listMatchingResources(getResourceManager()).keySet())
+        {
+            final ResourceLocation id = RECIPES.fileToId(file);
+            if (context.includes(id.getNamespace(), id.getPath()))
+            {
+                context.add(id.getNamespace(), id.getPath());
+            }
+        }
+    }
 
-            final FileToIdConverter recipes = FileToIdConverter.json(Registries.elementsDirPath(Registries.RECIPE));
-            recipes.listMatchingResources(Minecraft.getInstance().getSingleplayerServer().getResourceManager()).forEach((key, value) -> {
-                if (options.isNamespaceExcluded(recipes.fileToId(key).getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    generateRecipeData(options, recipes.fileToId(key), value);
-                    count.incrementAndGet();
-                }
-                catch (Exception e)
-                {
-                    LOGGER.error("Error generating data for recipes: {}", key, e);
-                }
-            });
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        final ResourceLocation id = ResourceLocation.fromNamespaceAndPath(target.namespace(), target.path());
+        return runAsync(() -> generateRecipeData(options, id, getResourceManager().getResourceOrThrow(RECIPES.idToFile(id))));
+    }
 
-            LOGGER.info("Recipes data generation complete. Generated {} files.", count.get());
-        });
+    private static ResourceManager getResourceManager()
+    {
+        return ServerLifecycleHooks.getCurrentServer().getResourceManager();
     }
 
-    private void generateRecipeData(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation recipeId, final Resource resource) throws IOException
+    private void generateRecipeData(final DataGeneratorOptions<L> options, final ResourceLocation recipeId, final Resource resource) throws IOException
     {
         try (final InputStream stream = resource.open())
         {
@@ -1,12 +1,13 @@
 package com.ldtteam.minecolonieswikigenerator.generators;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.ldtteam.minecolonieswikigenerator.research.ResearchObjectType;
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.resources.FileToIdConverter;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -15,7 +16,6 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.minecolonies.core.datalistener.ResearchListener.EFFECT_PROP;
 import static com.minecolonies.core.research.GlobalResearchBranch.*;
@@ -23,10 +23,14 @@ import static com.minecolonies.core.research.GlobalResearchBranch.*;
 /**
  * Generates JSON data for all research.
  */
-public class ResearchDataGenerator extends DataGenerator<ClientLevel>
+public class ResearchDataGenerator<L> extends DataGenerator<L>
 {
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private static final Gson GSON = new Gson();
+
+    private static final FileToIdConverter RESEARCH = FileToIdConverter.json("researches");
+
     private final ResearchObjectType type;
 
     public ResearchDataGenerator(final ResearchObjectType type)
@@ -47,48 +51,47 @@ public class ResearchDataGenerator extends DataGenerator<ClientLevel>
     }
 
     @Override
-    public CompletableFuture<Void> generate(final DataGeneratorOptions<ClientLevel> options)
+    public void listTargets(final TargetContext<L> context)
     {
-        return CompletableFuture.runAsync(() -> {
-            LOGGER.info("Starting research data generation...");
-            final AtomicInteger count = new AtomicInteger(0);
-
-            final FileToIdConverter research = FileToIdConverter.json("researches");
-            research.listMatchingResources(Minecraft.getInstance().getSingleplayerServer().getResourceManager()).forEach((key, value) -> {
-                if (options.isNamespaceExcluded(research.fileToId(key).getNamespace()))
-                {
-                    return;
-                }
-                try
-                {
-                    final boolean isValidFile = generateResearchData(options, research.fileToId(key), value);
-                    if (isValidFile)
-                    {
-                        count.incrementAndGet();
-                    }
-                }
-                catch (Exception e)
+        // The three research generators share a single resource folder, so each file has to be read to tell which one owns it
+        RESEARCH.listMatchingResources(getResourceManager()).forEach((key, value) -> {
+            final ResourceLocation id = RESEARCH.fileToId(key);
+            if (!context.includes(id.getNamespace(), id.getPath()))
+            {
+                return;
+            }
+            try
+            {
+                if (getType(readResearch(value)).equals(type))
                 {
-                    LOGGER.error("Error generating data for research: {}", key, e);
+                    context.add(id.getNamespace(), id.getPath());
                 }
-            });
-
-            LOGGER.info("Research data generation complete. Generated {} files.", count.get());
+            }
+            catch (Exception e)
+            {
+                LOGGER.error("Error reading research: {}", key, e);
+            }
         });
     }
 
-    private boolean generateResearchData(final DataGeneratorOptions<ClientLevel> options, final ResourceLocation researchId, final Resource resource) throws IOException
+    @Override
+    public CompletableFuture<Void> generate(final GeneratorTarget target, final DataGeneratorOptions<L> options)
+    {
+        final ResourceLocation id = ResourceLocation.fromNamespaceAndPath(target.namespace(), target.path());
+        return runAsync(() -> options.saveJsonFile(id.getNamespace(), id.getPath(), readResearch(getResourceManager().getResourceOrThrow(RESEARCH.idToFile(id)))));
+    }
+
+    private static ResourceManager getResourceManager()
+    {
+        return ServerLifecycleHooks.getCurrentServer().getResourceManager();
+    }
+
+    private static JsonObject readResearch(final Resource resource) throws IOException
     {
         try (final InputStream stream = resource.open())
         {
-            final JsonObject json = options.getGson().fromJson(new String(stream.readAllBytes(), StandardCharsets.UTF_8), JsonObject.class);
-            if (getType(json).equals(type))
-            {
-                options.saveJsonFile(researchId.getNamespace(), researchId.getPath(), json);
-                return true;
-            }
+            return GSON.fromJson(new String(stream.readAllBytes(), StandardCharsets.UTF_8), JsonObject.class);
         }
-        return false;
     }
 
     private ResearchObjectType getType(final JsonObject object)